@@ -0,0 +1,95 @@
+package ticTacToe.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ticTacToe.Game;
+import ticTacToe.IllegalMoveException;
+import ticTacToe.Move;
+
+/**
+ * The {@link Game} operations every solver and agent is built on. Each invocation goes over all non-terminal games
+ * where it is X's turn (and, for the move benchmarks, every legal move in each), so scores are in sweeps, not single
+ * calls.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameBenchmark {
+
+	Game[] games;
+
+	Move[][] moves;
+
+	@Setup
+	public void setup() {
+		List<Game> ongoing = new ArrayList<Game>();
+		for (Game g : Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				ongoing.add(g);
+		games = ongoing.toArray(new Game[ongoing.size()]);
+		moves = new Move[games.length][];
+		for (int i = 0; i < games.length; i++) {
+			List<Move> m = games[i].getPossibleMoves();
+			moves[i] = m.toArray(new Move[m.size()]);
+		}
+	}
+
+	@Benchmark
+	public void hashCode(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(g.hashCode());
+	}
+
+	@Benchmark
+	public void evaluateGameState(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(g.evaluateGameState());
+	}
+
+	@Benchmark
+	public void simulateMove(Blackhole bh) throws IllegalMoveException {
+		for (int i = 0; i < games.length; i++)
+			for (Move m : moves[i])
+				bh.consume(games[i].simulateMove(m));
+	}
+
+	/**
+	 * The allocation free alternative to {@link #simulateMove}, on a copy of each game.
+	 */
+	@Benchmark
+	public void playUndo(Blackhole bh) {
+		for (int i = 0; i < games.length; i++) {
+			Game g = games[i].clone();
+			for (Move m : moves[i]) {
+				g.play(m.cell());
+				bh.consume(g.getState());
+				g.undo(m.cell());
+			}
+		}
+	}
+
+	@Benchmark
+	public void getAllSuccessorGames(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(g.getAllSuccessorGames());
+	}
+
+}
@@ -0,0 +1,185 @@
+package ticTacToe.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ticTacToe.Game;
+
+/**
+ * Compares {@link Game#hashCode} and {@link Game#inverseHash} with the original String based encoding they replaced,
+ * and measures what that means for {@code HashMap<Game, ...>} lookups as done by the value functions and policies.
+ * Each invocation goes over all valid games where it is X's turn, so scores are in sweeps, not single lookups.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameHashBenchmark {
+
+	Game[] games;
+
+	int[] hashes;
+
+	HashMap<Game, Double> values = new HashMap<Game, Double>();
+
+	HashMap<LegacyKey, Double> legacyValues = new HashMap<LegacyKey, Double>();
+
+	LegacyKey[] legacyKeys;
+
+	@Setup
+	public void setup() {
+		List<Game> all = Game.generateAllValidGames('X');
+		games = all.toArray(new Game[all.size()]);
+		hashes = new int[games.length];
+		legacyKeys = new LegacyKey[games.length];
+		for (int i = 0; i < games.length; i++) {
+			hashes[i] = games[i].hashCode();
+			legacyKeys[i] = new LegacyKey(games[i]);
+			values.put(games[i], 0.0);
+			legacyValues.put(legacyKeys[i], 0.0);
+		}
+	}
+
+	@Benchmark
+	public void hashCode(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(g.hashCode());
+	}
+
+	@Benchmark
+	public void legacyHashCode(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(legacyHash(g));
+	}
+
+	@Benchmark
+	public void inverseHash(Blackhole bh) {
+		for (int h : hashes)
+			bh.consume(Game.inverseHash(h).get(1, 1));
+	}
+
+	@Benchmark
+	public void legacyInverseHash(Blackhole bh) {
+		for (int h : hashes)
+			bh.consume(legacyInverseHash(h)[1][1]);
+	}
+
+	@Benchmark
+	public void mapLookup(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(values.get(g));
+	}
+
+	@Benchmark
+	public void legacyMapLookup(Blackhole bh) {
+		for (LegacyKey k : legacyKeys)
+			bh.consume(legacyValues.get(k));
+	}
+
+	/**
+	 * The original String based {@link Game#hashCode}.
+	 */
+	static int legacyHash(Game g) {
+		String s = "";
+		for (int i = 0; i < 3; i++)
+			for (int j = 0; j < 3; j++) {
+				switch (g.get(i, j)) {
+				case 'X':
+					s += "1";
+					break;
+				case 'O':
+					s += "2";
+					break;
+				case ' ':
+					s += "0";
+					break;
+				}
+
+			}
+
+		s += (g.getWhoseTurn().getName() == 'X') ? "1" : "2";
+
+		return Integer.parseInt(s, 3);
+	}
+
+	/**
+	 * The original {@link Game#inverseHash}, decoding into the {@code char[3][3]} board the game used to hold.
+	 */
+	static char[][] legacyInverseHash(int hash) {
+		Game g = new Game();
+		char[][] board = new char[3][3];
+
+		String s1 = Integer.toString(hash, 3);
+
+		if (s1.charAt(s1.length() - 1) == '0')
+			return null;
+
+		String s = new String(s1);
+
+		for (int i = 0; i < 10 - s1.length(); i++) {
+			s = "0" + s;
+		}
+
+		if (s.charAt(s.length() - 1) == '2')
+			g = new Game('O');
+
+		for (int l = s.length() - 2; l >= 0; l--) {
+			int i = (int) l / 3;
+			int j = (int) l % 3;
+			switch (s.charAt(l)) {
+			case '0':
+				board[i][j] = ' ';
+				break;
+			case '1':
+				board[i][j] = 'X';
+				break;
+			case '2':
+				board[i][j] = 'O';
+				break;
+			default:
+				throw new IllegalStateException("this shouldn't happen!");
+
+			}
+		}
+
+		return g.isTerminal() ? null : board;
+	}
+
+	/**
+	 * A map key that hashes a game the old way.
+	 */
+	static class LegacyKey {
+		final Game g;
+
+		LegacyKey(Game g) {
+			this.g = g;
+		}
+
+		@Override
+		public int hashCode() {
+			return legacyHash(g);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof LegacyKey && legacyHash(((LegacyKey) other).g) == hashCode();
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+package ticTacToe.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ticTacToe.Game;
+import ticTacToe.Move;
+import ticTacToe.StateIndex;
+import ticTacToe.TTTMDP;
+
+/**
+ * The cost of the MDP model: generating the transitions of every (state, move) pair one at a time, as the solvers
+ * used to in every sweep, and compiling all of them into a {@code TransitionTable}, which the solvers now do once.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MdpBenchmark {
+
+	TTTMDP mdp = new TTTMDP();
+
+	Game[] games;
+
+	Move[][] moves;
+
+	@Setup
+	public void setup() {
+		List<Game> ongoing = new ArrayList<Game>();
+		for (Game g : Game.generateAllValidGames('X'))
+			if (!g.isTerminal())
+				ongoing.add(g);
+		games = ongoing.toArray(new Game[ongoing.size()]);
+		moves = new Move[games.length][];
+		for (int i = 0; i < games.length; i++) {
+			List<Move> m = games[i].getPossibleMoves();
+			moves[i] = m.toArray(new Move[m.size()]);
+		}
+	}
+
+	@Benchmark
+	public void generateTransitions(Blackhole bh) {
+		for (int i = 0; i < games.length; i++)
+			for (Move m : moves[i])
+				bh.consume(mdp.generateTransitions(games[i], m));
+	}
+
+	/**
+	 * A new {@link TTTMDP} every time, as it keeps the last table it compiled.
+	 */
+	@Benchmark
+	public Object compile() {
+		return new TTTMDP().compile(StateIndex.of('X', false));
+	}
+
+}
@@ -0,0 +1,54 @@
+package ticTacToe.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ticTacToe.PolicyIterationAgent;
+
+/**
+ * Time to train a {@link PolicyIterationAgent} from scratch with full policy evaluation, in each evaluation
+ * {@code mode}. The mode only applies to full evaluation ({@code sweeps=0}); modified policy iteration always sweeps
+ * Gauss-Seidel style and is measured by {@link ModifiedPolicyIterationBenchmark}. The transition table is compiled once
+ * in the setup, so only the solver is measured.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolicyIterationBenchmark {
+
+	@Param({ "GAUSS_SEIDEL", "BACK_SUBSTITUTION" })
+	String mode;
+
+	PolicyIterationAgent agent;
+
+	@Setup
+	public void setup() {
+		agent = new PolicyIterationAgent(0.9, 10, -10, -1, 0);
+		agent.setEvaluationMode("GAUSS_SEIDEL".equals(mode) ? PolicyIterationAgent.GAUSS_SEIDEL
+				: PolicyIterationAgent.BACK_SUBSTITUTION);
+		agent.setEvaluationSweeps(0);
+		agent.train();
+	}
+
+	@Benchmark
+	public int train() {
+		agent.train();
+		return agent.getRounds();
+	}
+
+}
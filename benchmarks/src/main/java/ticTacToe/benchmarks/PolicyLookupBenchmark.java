@@ -0,0 +1,110 @@
+package ticTacToe.benchmarks;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ticTacToe.AggressivePolicy;
+import ticTacToe.DefensivePolicy;
+import ticTacToe.Game;
+import ticTacToe.Move;
+import ticTacToe.Policy;
+import ticTacToe.RandomPolicy;
+import ticTacToe.ValueIterationAgent;
+
+/**
+ * The cost of serving moves from a trained policy: the hash-indexed {@link Policy}, the ordinal-indexed policy that
+ * the agents produce, and a {@code HashMap<Game, Move>} as {@link Policy} used to be; and of the rule based policies
+ * the opponents play. Each invocation looks up the move of every non-terminal game where it is X's turn, so scores are
+ * in sweeps, not single lookups.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolicyLookupBenchmark {
+
+	Game[] games;
+
+	Policy indexed;
+
+	Policy table = new Policy();
+
+	HashMap<Game, Move> map = new HashMap<Game, Move>();
+
+	Policy random = new RandomPolicy();
+
+	Policy aggressive = new AggressivePolicy();
+
+	Policy defensive = new DefensivePolicy();
+
+	@Setup
+	public void setup() {
+		indexed = new ValueIterationAgent().getPolicy();
+		List<Game> all = Game.generateAllValidGames('X');
+		int n = 0;
+		games = new Game[all.size()];
+		for (Game g : all) {
+			if (g.isTerminal())
+				continue;
+			games[n++] = g;
+			table.put(g, indexed.getMove(g));
+			map.put(g, indexed.getMove(g));
+		}
+		games = Arrays.copyOf(games, n);
+	}
+
+	@Benchmark
+	public void hashIndexed(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(table.getMove(g));
+	}
+
+	@Benchmark
+	public void ordinalIndexed(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(indexed.getMove(g));
+	}
+
+	@Benchmark
+	public void hashMap(Blackhole bh) {
+		for (Game g : games)
+			if (map.containsKey(g))
+				bh.consume(map.get(g));
+	}
+
+	@Benchmark
+	public void random(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(random.getMove(g));
+	}
+
+	@Benchmark
+	public void aggressive(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(aggressive.getMove(g));
+	}
+
+	@Benchmark
+	public void defensive(Blackhole bh) {
+		for (Game g : games)
+			bh.consume(defensive.getMove(g));
+	}
+
+}
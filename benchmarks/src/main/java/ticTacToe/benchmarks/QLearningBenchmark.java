@@ -0,0 +1,54 @@
+package ticTacToe.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ticTacToe.QLearningAgent;
+import ticTacToe.RandomAgent;
+
+/**
+ * Q-learning training throughput against a random opponent with 1, 2 and 4 actors sharing one q-table. Scores are in
+ * episodes per second; they can only scale with the number of actors up to the number of cores.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QLearningBenchmark {
+
+	static final int EPISODES = 10000;
+
+	@Param({ "1", "2", "4" })
+	int actors;
+
+	QLearningAgent agent;
+
+	@Setup
+	public void setup() {
+		agent = new QLearningAgent(new RandomAgent(), 0.5, 0, 0.9);
+		agent.setActors(actors);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EPISODES)
+	public QLearningAgent train() {
+		agent.train(EPISODES);
+		return agent;
+	}
+
+}
@@ -0,0 +1,37 @@
+package ticTacToe.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so that the allocation rate ({@code gc.alloc.rate.norm}, bytes per
+ * operation) is reported next to every score, and writes all results to a JSON file that can be compared between
+ * releases:
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar ticTacToe.benchmarks.ReleaseBenchmarks [results.json] [regex...]
+ * </pre>
+ *
+ * The results go to {@code jmh-result.json} by default. Without a regex, every benchmark is run.
+ *
+ */
+public class ReleaseBenchmarks {
+
+	public static void main(String[] args) throws RunnerException {
+		String result = args.length > 0 ? args[0] : "jmh-result.json";
+
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(result);
+		for (int i = 1; i < args.length; i++)
+			options.include(args[i]);
+
+		new Runner(options.build()).run();
+	}
+
+}
@@ -0,0 +1,90 @@
+package ticTacToe.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ticTacToe.Policy;
+import ticTacToe.PolicyIterationAgent;
+import ticTacToe.PrioritizedSweepingAgent;
+import ticTacToe.QLearningAgent;
+import ticTacToe.RandomAgent;
+import ticTacToe.RetrogradeAgent;
+import ticTacToe.ValueIterationAgent;
+
+/**
+ * Time to train each agent from scratch with its default parameters. The planning agents are built once in the setup
+ * and have their values reset before every training run, so their MDP is only compiled once. The Q-learning agent is
+ * built, and so trained, in every invocation, as it has no way to reset its q-table and exploration rate.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrainingBenchmark {
+
+	ValueIterationAgent valueIteration;
+
+	PolicyIterationAgent policyIteration;
+
+	PrioritizedSweepingAgent prioritizedSweeping;
+
+	RetrogradeAgent retrograde;
+
+	@Setup
+	public void setup() {
+		valueIteration = new ValueIterationAgent(0.9);
+		policyIteration = new PolicyIterationAgent(0.9);
+		prioritizedSweeping = new PrioritizedSweepingAgent(0.9);
+		retrograde = new RetrogradeAgent(0.9);
+	}
+
+	@Benchmark
+	public Policy valueIteration() {
+		valueIteration.initValues();
+		valueIteration.train();
+		return valueIteration.getPolicy();
+	}
+
+	@Benchmark
+	public Policy policyIteration() {
+		policyIteration.initValues();
+		policyIteration.train();
+		return policyIteration.getPolicy();
+	}
+
+	@Benchmark
+	public Policy prioritizedSweeping() {
+		prioritizedSweeping.initValues();
+		prioritizedSweeping.train();
+		return prioritizedSweeping.getPolicy();
+	}
+
+	@Benchmark
+	public Policy retrograde() {
+		retrograde.initValues();
+		retrograde.train();
+		return retrograde.getPolicy();
+	}
+
+	/**
+	 * As {@link QLearningAgent#QLearningAgent()}, with the default 50000 episodes.
+	 */
+	@Benchmark
+	public Policy qLearning() {
+		return new QLearningAgent(new RandomAgent(), 0.5, 50000, 0.9).getPolicy();
+	}
+
+}
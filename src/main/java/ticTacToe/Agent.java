@@ -1,5 +1,8 @@
 package ticTacToe;
 
+import java.io.File;
+import java.io.IOException;
+
 
 public class Agent {
 	
@@ -58,9 +61,63 @@ public class Agent {
 	}
 	
 	
+	/**
+	 * 
+	 * @return the file this agent's policy is saved to by default: the agent's class name with a .pol extension, in the 
+	 * current directory
+	 */
+	public String getPolicyFileName()
+	{
+		return getClass().getSimpleName()+".pol";
+	}
+	
+	/**
+	 * Loads the policy saved in {@link #getPolicyFileName()}, if there is one, and sets it as this agent's policy.
+	 * 
+	 * @return the policy loaded, or null if there is no policy file or it couldn't be loaded
+	 */
 	public Policy loadPolicyFromFile()
 	{
-		return null;
+		if (!new File(getPolicyFileName()).isFile())
+			return null;
+		
+		try {
+			return loadPolicyFromFile(getPolicyFileName());
+		}
+		catch(IOException e)
+		{
+			return null;
+		}
+	}
+	
+	/**
+	 * Loads a policy saved by {@link #savePolicyToFile(String)} and sets it as this agent's policy. The file is mapped 
+	 * into memory, so this takes milliseconds and the agent can play straight away without being trained.
+	 * 
+	 * @param file
+	 * @return the policy loaded
+	 * @throws IOException if the file can't be read or isn't a valid policy file
+	 */
+	public Policy loadPolicyFromFile(String file) throws IOException
+	{
+		this.policy=IndexedPolicy.load(file);
+		return this.policy;
+	}
+	
+	/**
+	 * Saves this agent's policy in the binary format described in {@link TableFile}. Works for agents whose policy is 
+	 * an {@link IndexedPolicy}, such as trained {@link ValueIterationAgent}, {@link PolicyIterationAgent} and 
+	 * {@link QLearningAgent} agents.
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void savePolicyToFile(String file) throws IOException
+	{
+		if (!(policy instanceof IndexedPolicy))
+			throw new IllegalStateException("Only indexed policies can be saved. This agent has: "+policy);
+		
+		((IndexedPolicy) policy).save(file);
 	}
 	
 	
@@ -1,8 +1,7 @@
 package ticTacToe;
 
 
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 /**
  * An agrgessive policy: if there is a winning move given a game state (Game object) then this policy finds it. Otherwise returns a
  * random available move.
@@ -16,27 +15,24 @@ public class AggressivePolicy extends Policy {
 	public Move getMove(Game g) {
 		
 		
-		List<Move> moves=g.getPossibleMoves();
+		int moves=g.getLegalMoves();
 		
-		for(Move m:moves)
+		//try every move on a scratch copy, in place
+		Game scratch=g.clone();
+		for(int m=moves;m!=0;m&=m-1)
 		{
-			
-			Game resulting=null;
-			try{
-				resulting=g.simulateMove(m);
-			}
-			catch(IllegalMoveException e)
-			{
-				System.out.println(e.getMessage());
-				e.printStackTrace();
-			}
-			if (resulting.getState()==Game.X_WON||resulting.getState()==Game.O_WON)
-				return m;
+			int cell=Integer.numberOfTrailingZeros(m);
+			scratch.play(cell);
+			boolean won=scratch.getState()==Game.X_WON||scratch.getState()==Game.O_WON;
+			scratch.undo(cell);
+			if (won)
+				return Move.of(g.whoseTurn.getName(), cell);
 		}
 		
-		Random r=new Random();
+		ThreadLocalRandom r=ThreadLocalRandom.current();// shared policies are used from many threads
+		int cell=BitBoard.nthCell(moves, r.nextInt(Integer.bitCount(moves)));
 		
-		return moves.get(r.nextInt(moves.size()));
+		return Move.of(g.whoseTurn.getName(), cell);
 		
 	}
 
@@ -0,0 +1,101 @@
+package ticTacToe;
+
+/**
+ * Static helpers for the packed board representation used by {@link Game}. A side's pieces are held in a 9-bit mask
+ * where cell {@code (x,y)} is bit {@code 3*x+y}, i.e. cells are numbered
+ *
+ * <pre>
+ * 0|1|2
+ * 3|4|5
+ * 6|7|8
+ * </pre>
+ *
+ * which is the same numbering used by {@link HumanAgent}.
+ *
+ */
+final class BitBoard {
+
+	/**
+	 * mask with all 9 cells set
+	 */
+	static final int FULL = 0x1FF;
+
+	/**
+	 * The 8 winning lines, in the order in which {@link Game#evaluateGameState()} checks them: the three rows, the
+	 * three columns and then the two diagonals.
+	 */
+	static final int[] LINES = { 0007, 0070, 0700, 0111, 0222, 0444, 0421, 0124 };
+
+	private BitBoard() {
+	}
+
+	/**
+	 *
+	 * @param x row (0-2)
+	 * @param y column (0-2)
+	 * @return the cell index of {@code (x,y)}
+	 */
+	static int cell(int x, int y) {
+		return 3 * x + y;
+	}
+
+	/**
+	 *
+	 * @return the single bit mask of {@code (x,y)}
+	 */
+	static int bit(int x, int y) {
+		return 1 << (3 * x + y);
+	}
+
+	/**
+	 *
+	 * @param bits a side's pieces
+	 * @return true if {@code bits} contains a complete line
+	 */
+	static boolean hasLine(int bits) {
+		for (int line : LINES)
+			if ((bits & line) == line)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Evaluates a position given both sides' pieces.
+	 *
+	 * @return one of {@link Game#ONGOING}, {@link Game#X_WON}, {@link Game#O_WON} or {@link Game#DRAW}
+	 */
+	static int evaluate(int xBits, int oBits) {
+		// a line is only possible with at least 3 pieces on the board.
+		if (Integer.bitCount(xBits | oBits) >= 3) {
+			for (int line : LINES) {
+				if ((xBits & line) == line)
+					return Game.X_WON;
+				if ((oBits & line) == line)
+					return Game.O_WON;
+			}
+		}
+
+		return (xBits | oBits) == FULL ? Game.DRAW : Game.ONGOING;
+	}
+
+	/**
+	 *
+	 * @param mask a mask of cells
+	 * @param n    between 0 and {@code Integer.bitCount(mask)-1}
+	 * @return the {@code n}-th cell in {@code mask}, counting from cell 0
+	 */
+	static int nthCell(int mask, int n) {
+		for (int i = 0; i < n; i++)
+			mask &= mask - 1;
+		return Integer.numberOfTrailingZeros(mask);
+	}
+
+	/**
+	 *
+	 * @return the mask of empty cells
+	 */
+	static int empty(int xBits, int oBits) {
+		return ~(xBits | oBits) & FULL;
+	}
+
+}
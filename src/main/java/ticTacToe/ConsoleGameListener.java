@@ -0,0 +1,30 @@
+package ticTacToe;
+
+/**
+ * Prints every move and the board after it, and the result of the game, to {@code System.out}. This is what
+ * {@link Game#playOut()} used to print; the {@code main} methods that play against a human use it.
+ *
+ */
+public class ConsoleGameListener implements GameListener {
+
+	public void movePlayed(Game g, Move m) {
+		System.out.println("Playing move: " + m);
+		System.out.println(g);
+	}
+
+	public void gameEnded(Game g) {
+		if (g.getState() == Game.X_WON)
+			System.out.println("X won!");
+		else if (g.getState() == Game.O_WON)
+			System.out.println("O won!");
+		else if (g.getState() == Game.DRAW)
+			System.out.println("It's a draw.");
+		else
+			System.out.println(g.getWhoseTurn().getName() + " forfeited.");
+	}
+
+	public void illegalMove(Game g, Move m, String reason) {
+		System.out.println("Illegal move " + m + ": " + reason);
+	}
+
+}
@@ -1,8 +1,7 @@
 package ticTacToe;
 
 
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 /**
  * A defensive policy: if there is a move to block the opponent's X's or O's in a row, this policy finds it and returns it. Otherwise
  * returns random move.
@@ -14,27 +13,23 @@ public class DefensivePolicy extends Policy {
 public Move getMove(Game g) {
 		
 		
-		List<Move> moves=g.getPossibleMovesByOpponent();
+		int moves=g.getLegalMoves();
+		int opponent=(g.whoseTurn==g.x)?g.oBits:g.xBits;
 		
-		for(Move m: moves)
+		for(int m=moves;m!=0;m&=m-1)
 		{
-			Game resulting=g.clone();
-			resulting.getBoard()[m.x][m.y]=m.who.getName();
-			resulting.evaluateGameState();
-			if (resulting.getState()==Game.X_WON||resulting.getState()==Game.O_WON)
+			//would the opponent complete a line here?
+			int cell=Integer.numberOfTrailingZeros(m);
+			if (BitBoard.hasLine(opponent|(1<<cell)))
 			{
-				Move newMove=new Move(m.who.getName()=='X'?'O':'X', m.x,m.y);
-				System.out.println("Playing defensive move");
-				return newMove;
+				return Move.of(g.whoseTurn.getName(), cell);
 			}
 		}
 		
-		Random r=new Random();
-		System.out.println("Playing random move");
-		Move randomMove=moves.get(r.nextInt(moves.size()));
-		Move myMove=new Move(randomMove.who.getName()=='X'?'O':'X', randomMove.x,randomMove.y);
+		ThreadLocalRandom r=ThreadLocalRandom.current();// shared policies are used from many threads
+		int cell=BitBoard.nthCell(moves, r.nextInt(Integer.bitCount(moves)));
 		
-		return myMove;
+		return Move.of(g.whoseTurn.getName(), cell);
 		
 	}
 
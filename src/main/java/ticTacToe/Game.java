@@ -36,7 +36,13 @@ public class Game {
 	 */
 	int state = 0;
 
-	char[][] board = new char[3][3];
+	/**
+	 * The board, stored as one 9-bit mask per side (see {@link BitBoard} for the cell numbering). Whose turn it is
+	 * is given by {@link #whoseTurn}.
+	 */
+	int xBits;
+
+	int oBits;
 
 	/**
 	 * the X agent
@@ -50,6 +56,19 @@ public class Game {
 
 	Agent whoseTurn;
 
+	/**
+	 * The cells played in this game so far, 4 bits per move with the first move in the lowest bits, and how many there
+	 * are. Copies keep the history of the game they are copied from.
+	 */
+	long history;
+
+	int historyLength;
+
+	/**
+	 * told about every move, the end of the game and illegal moves. Not copied by {@link #Game(Game)}.
+	 */
+	GameListener listener = GameListener.NONE;
+
 	/**
 	 * new game with new X and O agents with null policies
 	 */
@@ -116,17 +135,18 @@ public class Game {
 		this.whoseTurn = g.whoseTurn;
 		// WARNING: Currently Agents are not deep copied
 
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++)
-				this.board[i][j] = g.board[i][j];
+		this.xBits = g.xBits;
+		this.oBits = g.oBits;
+		this.state = g.state;
+		this.history = g.history;
+		this.historyLength = g.historyLength;
 
 	}
 
 	public void initBoard() {
-		// fill the board with e's (empty cells)
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++)
-				board[i][j] = ' ';
+		// empty all cells
+		xBits = 0;
+		oBits = 0;
 
 	}
 
@@ -138,12 +158,129 @@ public class Game {
 			return false;
 		}
 
-		if (board[m.x][m.y] != ' ')
+		if (((xBits | oBits) & BitBoard.bit(m.x, m.y)) != 0)
 			return false;
 
 		return true;
 	}
 
+	/**
+	 * 
+	 * @param x
+	 * @param y
+	 * @return the piece at {@code (x,y)}: 'X', 'O' or ' ' if the cell is empty
+	 */
+	public char get(int x, int y) {
+		int bit = BitBoard.bit(x, y);
+		if ((xBits & bit) != 0)
+			return 'X';
+		if ((oBits & bit) != 0)
+			return 'O';
+		return ' ';
+	}
+
+	/**
+	 * Puts {@code xo} at {@code (x,y)} regardless of whose turn it is and without re-evaluating the game. Used to
+	 * construct boards directly.
+	 * 
+	 * @param xo 'X', 'O' or ' ' to clear the cell
+	 */
+	void set(int x, int y, char xo) {
+		int bit = BitBoard.bit(x, y);
+		xBits &= ~bit;
+		oBits &= ~bit;
+		if (xo == 'X')
+			xBits |= bit;
+		else if (xo == 'O')
+			oBits |= bit;
+	}
+
+	/**
+	 * The moves available to the agent whose turn it is, as a mask of cells where cell {@code (x,y)} is bit
+	 * {@code 3*x+y}. Together with {@link #play(int)} and {@link #undo(int)} this lets callers walk the successors of a
+	 * game without creating any {@link Game}, {@link Move} or list objects:
+	 * 
+	 * <pre>
+	 * for (int moves = g.getLegalMoves(); moves != 0; moves &amp;= moves - 1) {
+	 * 	int cell = Integer.numberOfTrailingZeros(moves);
+	 * 	g.play(cell);
+	 * 	// ... look at g
+	 * 	g.undo(cell);
+	 * }
+	 * </pre>
+	 * 
+	 * @return the mask of empty cells, 0 if the game is over
+	 */
+	public int getLegalMoves() {
+		if (state != ONGOING)
+			return 0;
+		return BitBoard.empty(xBits, oBits);
+	}
+
+	/**
+	 * Plays {@code cell} for the agent whose turn it is, changing this game: the piece is placed, the turn passes to the
+	 * other agent and the game is re-evaluated.
+	 * 
+	 * @param cell {@code 3*x+y}, an empty cell
+	 */
+	public void play(int cell) {
+		int bit = 1 << cell;
+		if (((xBits | oBits) & bit) != 0)
+			throw new IllegalArgumentException("Cell " + cell + " is not empty in:" + this);
+
+		if (whoseTurn == x) {
+			xBits |= bit;
+			whoseTurn = o;
+		} else {
+			oBits |= bit;
+			whoseTurn = x;
+		}
+		evaluateGameState();
+		played(cell);
+	}
+
+	/**
+	 * Adds {@code cell} to the history and tells the listener, after a move has been played in it.
+	 */
+	private void played(int cell) {
+		history |= (long) cell << (4 * historyLength);
+		historyLength++;
+
+		if (listener != GameListener.NONE) {
+			listener.movePlayed(this, Move.of((xBits & (1 << cell)) != 0 ? 'X' : 'O', cell));
+			if (state != ONGOING)
+				listener.gameEnded(this);
+		}
+	}
+
+	/**
+	 * Takes back the last move, which was played in {@code cell}: the piece is removed and it is the turn of the agent
+	 * who played it again. Moves can be undone in the reverse order they were played in.
+	 * 
+	 * @param cell the cell last played in by {@link #play(int)} or {@link #executeMove(Move)}
+	 * @throws IllegalArgumentException if {@code cell} isn't the last move on the board or in the history
+	 */
+	public void undo(int cell) {
+		int bit = 1 << cell;
+		int last = (whoseTurn == x) ? oBits : xBits; // the pieces of the agent who moved last
+		if ((last & bit) == 0 || (historyLength > 0 && getHistoryCell(historyLength - 1) != cell))
+			throw new IllegalArgumentException("Cell " + cell + " wasn't played last in:" + this);
+
+		if (whoseTurn == x) {
+			oBits &= ~bit;
+			whoseTurn = o;
+		} else {
+			xBits &= ~bit;
+			whoseTurn = x;
+		}
+		// a move was played from here, so the game was still going on
+		state = ONGOING;
+		if (historyLength > 0) {
+			historyLength--;
+			history &= ~(0xFL << (4 * historyLength));
+		}
+	}
+
 	/**
 	 * 
 	 * @return All possible next game states from the current game state in one step
@@ -152,20 +289,11 @@ public class Game {
 	 */
 	public List<Game> getAllSuccessorGames() {
 		List<Game> result = new ArrayList<Game>();
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				if (board[i][j] == ' ') {
-					Game newGame = null;
-					try {
-						newGame = this.simulateMove(whoseTurn.getName(), i, j);
-					} catch (IllegalMoveException e) {
-						System.out.println(e.getMessage());
-						e.printStackTrace();
-					}
-					// System.out.println("Adding:\n"+newGame);
-					result.add(newGame);
-				}
-			}
+		for (int moves = BitBoard.empty(xBits, oBits); moves != 0; moves &= moves - 1) {
+			Game newGame = clone();
+			newGame.play(Integer.numberOfTrailingZeros(moves));
+			result.add(newGame);
+		}
 
 		return result;
 
@@ -176,10 +304,32 @@ public class Game {
 	 * or O's turn as specified by {@code xo} argument. NOTE: this method will
 	 * include ALL terminal states in the game.
 	 * 
+	 * The games are copied from the shared catalogue {@link StateIndex#of(char, boolean)}, so only the first call
+	 * enumerates the game hashes. They are in ascending {@link #hashCode} order, and the caller is free to change them.
+	 * 
 	 * @param xo specifies whose turn it should be in the resulting games.
 	 * @return
 	 */
 	public static List<Game> generateAllValidGames(char xo) {
+		StateIndex states = StateIndex.of(xo, false);
+		List<Game> result = new ArrayList<Game>(states.size());
+		for (int s = 0; s < states.size(); s++) {
+			Game g = inverseHash(states.hash(s));
+			g.state = states.game(s).state;
+			result.add(g);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Enumerates all valid games where it is {@code xo}'s turn, or that are terminal, by checking every game hash. Used to
+	 * build the {@link StateIndex} catalogue, see {@link #generateAllValidGames(char)}.
+	 * 
+	 * @param xo specifies whose turn it should be in the resulting games.
+	 * @return the games, evaluated and in ascending {@link #hashCode} order
+	 */
+	static List<Game> enumerateValidGames(char xo) {
 		List<Game> result = new ArrayList<Game>();
 		// this is the number of possible game hashes (2222222222 in base 3): 59048 -
 		// not all are valid. Here we only return the valid ones.
@@ -214,11 +364,10 @@ public class Game {
 		if (getState() != ONGOING)
 			return possibleMoves;
 
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				if (getBoard()[i][j] == ' ')
-					possibleMoves.add(new Move(whoseTurn, i, j));
-			}
+		for (int empty = BitBoard.empty(xBits, oBits); empty != 0; empty &= empty - 1) {
+			int cell = Integer.numberOfTrailingZeros(empty);
+			possibleMoves.add(Move.of(whoseTurn.getName(), cell));
+		}
 
 		return possibleMoves;
 
@@ -236,17 +385,26 @@ public class Game {
 		if (getState() != ONGOING)
 			return possibleMoves;
 
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				if (getBoard()[i][j] == ' ')
-					possibleMoves.add(new Move((whoseTurn.getName() == 'X') ? 'O' : 'X', i, j));
-			}
+		char opponent = (whoseTurn.getName() == 'X') ? 'O' : 'X';
+		for (int empty = BitBoard.empty(xBits, oBits); empty != 0; empty &= empty - 1) {
+			int cell = Integer.numberOfTrailingZeros(empty);
+			possibleMoves.add(Move.of(opponent, cell));
+		}
 
 		return possibleMoves;
 
 	}
 
+	/**
+	 * 
+	 * @return a copy of the board as a 3x3 array of 'X', 'O' and ' ' (empty) characters. Changing the returned array
+	 *         does not change the game.
+	 */
 	public char[][] getBoard() {
+		char[][] board = new char[3][3];
+		for (int i = 0; i < 3; i++)
+			for (int j = 0; j < 3; j++)
+				board[i][j] = get(i, j);
 		return board;
 	}
 
@@ -255,7 +413,7 @@ public class Game {
 		for (int i = 0; i < 3; i++) {
 			result += "|";
 			for (int j = 0; j < 3; j++) {
-				result += board[i][j] + "|";
+				result += get(i, j) + "|";
 
 			}
 			result += "\n";
@@ -273,114 +431,13 @@ public class Game {
 	 * @return an integer representing the game state
 	 */
 	public int evaluateGameState() {
-
-		// checking columns
-		if (board[0][0] != ' ' && board[0][0] == board[0][1] && board[0][1] == board[0][2]) {
-			if (board[0][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-		if (board[1][0] != ' ' && board[1][0] == board[1][1] && board[1][1] == board[1][2]) {
-			if (board[1][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-		if (board[2][0] != ' ' && board[2][0] == board[2][1] && board[2][1] == board[2][2]) {
-			if (board[2][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-
-		// checking rows
-
-		if (board[0][0] != ' ' && board[0][0] == board[1][0] && board[1][0] == board[2][0]) {
-			if (board[0][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-		if (board[0][1] != ' ' && board[0][1] == board[1][1] && board[1][1] == board[2][1]) {
-			if (board[0][1] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-		if (board[0][2] != ' ' && board[0][2] == board[1][2] && board[1][2] == board[2][2]) {
-			if (board[0][2] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-
-		// checking diagnols
-
-		if (board[0][0] != ' ' && board[0][0] == board[1][1] && board[1][1] == board[2][2]) {
-			if (board[0][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-
-		if (board[2][0] != ' ' && board[2][0] == board[1][1] && board[1][1] == board[0][2]) {
-			if (board[2][0] == 'X')
-				this.state = X_WON;
-			else
-				this.state = O_WON;
-
-			return this.state;
-
-		}
-
-		boolean spacesLeft = false;
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				if (board[i][j] == ' ') {
-					spacesLeft = true;
-					break;
-
-				}
-			}
-
-		if (spacesLeft)
-			this.state = ONGOING;
-		else
-			this.state = DRAW;
-
+		this.state = BitBoard.evaluate(xBits, oBits);
 		return this.state;
 
 	}
 
 	private int count(char xo) {
-		int count = 0;
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++)
-				if (board[i][j] == xo)
-					count++;
-		return count;
+		return Integer.bitCount(xo == 'X' ? xBits : oBits);
 	}
 
 	/**
@@ -413,7 +470,7 @@ public class Game {
 	 * @return
 	 */
 	public Game simulateMove(char who, int x, int y) throws IllegalMoveException {
-		Move m = new Move(who, x, y);
+		Move m = Move.of(who, x, y);
 		return simulateMove(m);
 
 	}
@@ -432,19 +489,24 @@ public class Game {
 		if (whoseTurn == o && m.who.getName() != 'O')
 			throw new IllegalMoveException("it is not o's turn");
 
-		if (board[m.x][m.y] != ' ')
+		int bit = BitBoard.bit(m.x, m.y);
+		if (((xBits | oBits) & bit) != 0)
 			throw new IllegalMoveException("Invalid move. The square is " + m);
 
 		Game copy = clone();
-		copy.board[m.x][m.y] = m.who.getName();
-		if (m.who.getName() == 'X')
+		if (m.who.getName() == 'X') {
+			copy.xBits |= bit;
 			copy.whoseTurn = copy.o;
-		else if (m.who.getName() == 'O')
+		} else if (m.who.getName() == 'O') {
+			copy.oBits |= bit;
 			copy.whoseTurn = copy.x;
-		else
+		} else
 			throw new IllegalArgumentException();
 
 		copy.evaluateGameState();
+		// recorded without telling the listener: the copy is a what-if, not a move of this game
+		copy.history |= (long) m.cell() << (4 * copy.historyLength);
+		copy.historyLength++;
 
 		return copy;
 
@@ -457,26 +519,39 @@ public class Game {
 	 */
 	public void executeMove(Move m) throws IllegalMoveException {
 		if (whoseTurn == x && m.who.getName() != 'X')
-			throw new IllegalMoveException("it is not O's turn");
+			throw illegal(m, "it is not O's turn");
 
 		if (whoseTurn == o && m.who.getName() != 'O')
-			throw new IllegalMoveException("it is not X's turn");
+			throw illegal(m, "it is not X's turn");
 
-		if (board[m.x][m.y] != ' ')
-			throw new IllegalMoveException("Invalid move. The location (" + m.x + "," + m.y + ") is not empty");
+		int bit = BitBoard.bit(m.x, m.y);
+		if (((xBits | oBits) & bit) != 0)
+			throw illegal(m, "Invalid move. The location (" + m.x + "," + m.y + ") is not empty");
 
-		board[m.x][m.y] = m.who.getName();
-		if (whoseTurn.getName() == 'X')
+		if (whoseTurn.getName() == 'X') {
+			xBits |= bit;
 			whoseTurn = o;
-		else if (m.who.getName() == 'O')
+		} else if (m.who.getName() == 'O') {
+			oBits |= bit;
 			whoseTurn = x;
-		else
+		} else
 			throw new IllegalArgumentException();
 
 		this.evaluateGameState();
+		played(m.cell());
 
 	}
 
+	/**
+	 * Tells the listener about an illegal move.
+	 * 
+	 * @return the exception to throw
+	 */
+	private IllegalMoveException illegal(Move m, String reason) {
+		listener.illegalMove(this, m, reason);
+		return new IllegalMoveException(reason);
+	}
+
 	/**
 	 * Executes move on the current game. Returns the resulting game without
 	 * changing the current one.
@@ -486,7 +561,7 @@ public class Game {
 	 * @param y   the y coordinate of the move (between 0 and 2 inclusive)
 	 */
 	public void executeMove(char who, int x, int y) throws IllegalMoveException {
-		Move m = new Move(who, x, y);
+		Move m = Move.of(who, x, y);
 		executeMove(m);
 
 	}
@@ -496,7 +571,8 @@ public class Game {
 	 * /** This method will play out the game to the end using moves from the X and
 	 * O agents. Use this method to test your agents
 	 * 
-	 * Each step is pretty printed.
+	 * Each step is reported to the game's listener, see {@link #setListener}. Use a
+	 * {@link ConsoleGameListener} to have them pretty printed.
 	 */
 	public void playOut() throws IllegalMoveException {
 
@@ -511,22 +587,14 @@ public class Game {
 			//
 			// ValueIterationAgent a=(ValueIterationAgent)this.x;
 			// System.out.println("Game:"+g);
-			// System.out.println("Game Value="+a.valueFunction.get(g));
+			// System.out.println("Game Value="+a.getValue(g));
 			// }
 			// System.out.println("---------");
 			// }
 
-			System.out.println("Playing move: " + m);
 			executeMove(m);
-			System.out.println(this);
 
 		}
-		if (this.state == X_WON) {
-			System.out.println("X won!");
-		} else if (this.state == O_WON) {
-			System.out.println("O won!");
-		} else
-			System.out.println("It's a draw.");
 
 	}
 
@@ -555,28 +623,49 @@ public class Game {
 		// ' ' ->0
 		// 'X' ->1
 		// 'O' ->2
-		String s = "";
-		for (int i = 0; i < 3; i++)
-			for (int j = 0; j < 3; j++) {
-				switch (board[i][j]) {
-				case 'X':
-					s += "1";
-					break;
-				case 'O':
-					s += "2";
-					break;
-				case ' ':
-					s += "0";
-					break;
-				}
+		// also encode whose turn it is in the last digit. Either 1 or 2 (x or o)
+		return hash(xBits, oBits, (whoseTurn == x) ? 1 : 2);
 
-			}
-		// also encode whose turn it is. Either 1 or 2 (x or o)
+	}
 
-		s += (whoseTurn == x) ? "1" : "2";
+	/**
+	 * 
+	 * @param xBits X's pieces
+	 * @param oBits O's pieces
+	 * @param turn  1 if it is X's turn, 2 if it is O's
+	 * @return the {@link #hashCode} of the game with these pieces and turn
+	 */
+	static int hash(int xBits, int oBits, int turn) {
+		return DIGITS[xBits] + 2 * DIGITS[oBits] + turn;
+	}
 
-		return Integer.parseInt(s, 3);
+	/**
+	 * DIGITS[mask] is the base three number with a 1 in the digit of every cell in
+	 * {@code mask}. Cell 0 is the most significant digit and the least significant
+	 * one is reserved for whose turn it is, so cell {@code c} has weight 3^(9-c).
+	 */
+	private static final int[] DIGITS = new int[BitBoard.FULL + 1];
 
+	/**
+	 * CELLS[hash / 3] is the board encoded by {@code hash}, with X's pieces in the
+	 * low 9 bits and O's pieces in the next 9.
+	 */
+	private static final int[] CELLS = new int[19683];
+
+	static {
+		for (int mask = 1; mask <= BitBoard.FULL; mask++) {
+			int cell = Integer.numberOfTrailingZeros(mask);
+			int weight = 1;
+			for (int i = cell; i < 9; i++)
+				weight *= 3;
+			DIGITS[mask] = DIGITS[mask & (mask - 1)] + weight;
+		}
+		for (int xs = 0; xs <= BitBoard.FULL; xs++)
+			for (int os = BitBoard.empty(xs, 0);; os = (os - 1) & BitBoard.empty(xs, 0)) {
+				CELLS[(DIGITS[xs] + 2 * DIGITS[os]) / 3] = xs | (os << 9);
+				if (os == 0)
+					break;
+			}
 	}
 
 	/**
@@ -587,48 +676,25 @@ public class Game {
 	 * You can use this method to read your policy or value functions from file.
 	 * 
 	 * @param hash
-	 * @return the Game corresponding to the hash
+	 * @return the Game corresponding to the hash, or null if the hash does not
+	 *         encode whose turn it is.
 	 */
 	public static Game inverseHash(int hash) {
+		if (hash < 0 || hash >= 59049)
+			throw new IllegalArgumentException("Not a game hash: " + hash);
 
-		Game g = new Game();
-
-		String s1 = Integer.toString(hash, 3);
-
-		if (s1.charAt(s1.length() - 1) == '0')
+		// set whose turn
+		int turn = hash % 3;
+		if (turn == 0)
 			return null;
 
-		// add leading 0's
-		String s = new String(s1);
-
-		for (int i = 0; i < 10 - s1.length(); i++) {
-			s = "0" + s;
-		}
-		// System.out.println("Intermediate string:"+s);
-		// set whose turn
-		if (s.charAt(s.length() - 1) == '1')
-			g.whoseTurn = g.x;
-		else if (s.charAt(s.length() - 1) == '2')
+		Game g = new Game();
+		if (turn == 2)
 			g.whoseTurn = g.o;
 
-		for (int l = s.length() - 2; l >= 0; l--) {
-			int i = (int) l / 3;
-			int j = (int) l % 3;
-			switch (s.charAt(l)) {
-			case '0':
-				g.board[i][j] = ' ';
-				break;
-			case '1':
-				g.board[i][j] = 'X';
-				break;
-			case '2':
-				g.board[i][j] = 'O';
-				break;
-			default:
-				throw new IllegalStateException("this shouldn't happen!");
-
-			}
-		}
+		int cells = CELLS[hash / 3];
+		g.xBits = cells & BitBoard.FULL;
+		g.oBits = cells >>> 9;
 
 		return g;
 	}
@@ -646,13 +712,57 @@ public class Game {
 		return this.state;
 	}
 
+	/**
+	 * Sets the listener told about every move played in this game from now on, the
+	 * end of the game and illegal moves.
+	 * 
+	 * @param listener {@link GameListener#NONE} to stop listening
+	 */
+	public void setListener(GameListener listener) {
+		if (listener == null)
+			throw new IllegalArgumentException("Use GameListener.NONE rather than null");
+		this.listener = listener;
+	}
+
+	public GameListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * 
+	 * @return the number of moves played in this game (or the game it was copied
+	 *         from) since it was created. A game built from a hash has no history.
+	 */
+	public int getHistoryLength() {
+		return historyLength;
+	}
+
+	/**
+	 * 
+	 * @param i between 0 and {@code getHistoryLength()-1}
+	 * @return the cell ({@code 3*x+y}) played by the {@code i}-th move
+	 */
+	public int getHistoryCell(int i) {
+		if (i < 0 || i >= historyLength)
+			throw new IndexOutOfBoundsException("Move " + i + " of " + historyLength);
+		return (int) (history >>> (4 * i)) & 0xF;
+	}
+
+	/**
+	 * 
+	 * @return the agent whose turn it is to play
+	 */
+	public Agent getWhoseTurn() {
+		return this.whoseTurn;
+	}
+
 	public boolean isTerminal() {
 
 		return this.state != ONGOING;
 	}
 
-	public static final String help = " -h this menu" + "\n -x the X agent: -x <pi, vi, random, agg, def, human>"
-			+ "\n -o the O agent: -o <random, agg, def, human>"
+	public static final String help = " -h this menu" + "\n -x the X agent: -x <pi, vi, ps, retro, ql, minimax, mcts, random, agg, def, human>"
+			+ "\n -o the O agent: -o <minimax, mcts, random, agg, def, human>"
 			+ "\n -s the agent that starts the game (x or o): -s <x or o>";
 
 	// public static void main(String args[]) throws IllegalMoveException
@@ -718,6 +828,12 @@ public class Game {
 				} else if (next.equals("pi")) {
 					System.out.println("X is pi agent.");
 					x = new PolicyIterationAgent();
+				} else if (next.equals("ps")) {
+					System.out.println("X is prioritized sweeping agent.");
+					x = new PrioritizedSweepingAgent();
+				} else if (next.equals("retro")) {
+					System.out.println("X is retrograde agent.");
+					x = new RetrogradeAgent();
 				} else if (next.equals("random")) {
 					System.out.println("X is random agent.");
 					x = new RandomAgent();
@@ -734,6 +850,12 @@ public class Game {
 				} else if (next.equals("ql")) {
 					System.out.println("X is q learning agent.");
 					x = new QLearningAgent();
+				} else if (next.equals("minimax")) {
+					System.out.println("X is minimax agent.");
+					x = new MinimaxAgent();
+				} else if (next.equals("mcts")) {
+					System.out.println("X is monte carlo tree search agent.");
+					x = new MctsAgent();
 				} else {
 					System.out.println("-x should be followed by the agent type: vi, pi, ql, random or human");
 					return;
@@ -770,6 +892,12 @@ public class Game {
 				} else if (next.equals("ql")) {
 					System.out.println("O is q learning agent.");
 					o = new QLearningAgent();
+				} else if (next.equals("minimax")) {
+					System.out.println("O is minimax agent.");
+					o = new MinimaxAgent();
+				} else if (next.equals("mcts")) {
+					System.out.println("O is monte carlo tree search agent.");
+					o = new MctsAgent();
 				} else {
 					System.out.println("Error: -x should be followed by the agent type: vi, pi, random or human");
 					return;
@@ -814,6 +942,7 @@ public class Game {
 		else
 			g = new Game(x, o, o);
 
+		g.setListener(new ConsoleGameListener());
 		g.playOut();
 
 	}
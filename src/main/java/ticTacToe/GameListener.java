@@ -0,0 +1,56 @@
+package ticTacToe;
+
+/**
+ * Receives the events of a {@link Game}: every move played, the end of the game, and illegal moves. Set one with
+ * {@link Game#setListener(GameListener)}.
+ *
+ * Games have the {@link #NONE} listener unless told otherwise, which ignores everything, so a game nobody listens to
+ * does no logging work at all. Copies of a game (see {@link Game#clone()}) don't inherit its listener, so the games
+ * that policies and solvers simulate moves on stay silent.
+ *
+ * A listener shared by games played on different threads must be thread safe.
+ *
+ */
+public interface GameListener {
+
+	/**
+	 * Ignores every event.
+	 */
+	GameListener NONE = new GameListener() {
+		public void movePlayed(Game g, Move m) {
+		}
+
+		public void gameEnded(Game g) {
+		}
+
+		public void illegalMove(Game g, Move m, String reason) {
+		}
+	};
+
+	/**
+	 * Called after {@code m} has been played in {@code g}.
+	 *
+	 * @param g the game, after the move
+	 * @param m
+	 */
+	void movePlayed(Game g, Move m);
+
+	/**
+	 * Called once the game is over, after the last {@link #movePlayed}. {@link Game#getState()} tells how it ended. A
+	 * game that is still {@link Game#ONGOING} has been forfeited by the player to move, e.g. by playing an illegal move
+	 * in a {@link Tournament}.
+	 *
+	 * @param g
+	 */
+	void gameEnded(Game g);
+
+	/**
+	 * Called when {@code m} is refused, before the exception reporting it (if any) is thrown.
+	 *
+	 * @param g      the game, which hasn't changed
+	 * @param m      the move, possibly null
+	 * @param reason
+	 */
+	void illegalMove(Game g, Move m, String reason);
+
+}
@@ -0,0 +1,243 @@
+package ticTacToe;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A {@link GameListener} that appends a record of every finished game to a file, for replaying games later. Writing is
+ * done by a background thread, so the games being recorded never wait for the disk: finished games are packed into a
+ * {@code long} each and handed over in batches. If the writer falls so far behind that {@link #QUEUED_BATCHES} batches
+ * are waiting, further batches are dropped rather than blocking the games, and counted in {@link #getDropped()}.
+ *
+ * Each record is a line with the agent who moved first, the cells played in order and the result, for example
+ * {@code X40812765D}: X started, played cell 4, O cell 0 and so on, and it was a draw ({@code X}, {@code O} or
+ * {@code D}, or {@code F} if the player to move after the last cell forfeited the game). Cells are numbered as in {@link HumanAgent}. Only games that start from an empty board give complete
+ * records.
+ *
+ * A writer can be shared by games played on different threads. {@link #close()} writes out the games still queued.
+ *
+ */
+public class GameRecordWriter implements GameListener, Closeable {
+
+	/**
+	 * the number of games handed to the writer thread at once
+	 */
+	static final int BATCH_SIZE = 1024;
+
+	/**
+	 * the most batches waiting to be written
+	 */
+	static final int QUEUED_BATCHES = 64;
+
+	private static final class Batch {
+		final long[] records = new long[BATCH_SIZE];
+		int size = 0;
+	}
+
+	/**
+	 * tells the writer thread to stop
+	 */
+	private static final Batch END = new Batch();
+
+	private final Writer out;
+
+	private final BlockingQueue<Batch> queued = new ArrayBlockingQueue<Batch>(QUEUED_BATCHES);
+
+	/**
+	 * batches already written, to be filled again
+	 */
+	private final BlockingQueue<Batch> free = new ArrayBlockingQueue<Batch>(QUEUED_BATCHES + 1);
+
+	private final Thread writer;
+
+	/**
+	 * the batch being filled, guarded by this
+	 */
+	private Batch current = new Batch();
+
+	private long recorded = 0;
+
+	private long dropped = 0;
+
+	private boolean closed = false;
+
+	/**
+	 * the first error of the writer thread, thrown by {@link #close()}
+	 */
+	private volatile IOException error;
+
+	/**
+	 *
+	 * @param file   the file to write the records to
+	 * @param append whether to add to the file rather than replace it
+	 * @throws IOException if the file can't be opened
+	 */
+	public GameRecordWriter(String file, boolean append) throws IOException {
+		this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), StandardCharsets.US_ASCII),
+				1 << 16);
+		this.writer = new Thread(new Runnable() {
+			public void run() {
+				write();
+			}
+		}, "GameRecordWriter " + file);
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	public void movePlayed(Game g, Move m) {
+	}
+
+	/**
+	 * Queues the record of {@code g}.
+	 */
+	public void gameEnded(Game g) {
+		long record = pack(g);
+		synchronized (this) {
+			if (closed)
+				return;
+			current.records[current.size++] = record;
+			recorded++;
+			if (current.size == BATCH_SIZE)
+				handOver();
+		}
+	}
+
+	public void illegalMove(Game g, Move m, String reason) {
+	}
+
+	/**
+	 * Hands the games recorded so far to the writer thread without waiting for them to be written.
+	 */
+	public synchronized void flush() {
+		if (!closed && current.size > 0)
+			handOver();
+	}
+
+	/**
+	 * Hands {@link #current} over to the writer thread, or drops it if too many batches are waiting, and starts a new
+	 * one. Called holding the lock.
+	 */
+	private void handOver() {
+		if (queued.offer(current)) {
+			Batch next = free.poll();
+			current = (next != null) ? next : new Batch();
+		} else {
+			dropped += current.size;
+			current.size = 0;
+		}
+	}
+
+	/**
+	 * Writes out the games still queued, and closes the file.
+	 *
+	 * @throws IOException if any record couldn't be written
+	 */
+	public void close() throws IOException {
+		Batch last;
+		synchronized (this) {
+			if (closed)
+				return;
+			last = current;
+			closed = true;
+		}
+
+		try {
+			// waits for room rather than dropping the last batch, as no more games are coming
+			if (last.size > 0)
+				queued.put(last);
+			queued.put(END);
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while writing game records", e);
+		} finally {
+			out.close();
+		}
+		if (error != null)
+			throw error;
+	}
+
+	/**
+	 *
+	 * @return the number of games recorded, including any dropped
+	 */
+	public synchronized long getRecorded() {
+		return recorded;
+	}
+
+	/**
+	 *
+	 * @return the number of games dropped because the writer thread fell behind
+	 */
+	public synchronized long getDropped() {
+		return dropped;
+	}
+
+	private void write() {
+		char[] line = new char[12];
+		try {
+			while (true) {
+				Batch batch = queued.take();
+				if (batch == END)
+					break;
+				for (int i = 0; i < batch.size; i++)
+					out.write(line, 0, format(batch.records[i], line));
+				batch.size = 0;
+				free.offer(batch);
+				out.flush();
+			}
+		} catch (IOException e) {
+			error = e;
+			// keep taking batches so that close() doesn't wait forever
+			drain();
+		} catch (InterruptedException e) {
+			error = new IOException("Interrupted while writing game records", e);
+		}
+	}
+
+	private void drain() {
+		try {
+			while (queued.take() != END)
+				;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Packs a finished game: the cells played in the lowest 36 bits (see {@link Game#history}), then 4 bits of move
+	 * count, 2 bits of result ({@link Game#getState()}) and 1 bit that is set if O moved first.
+	 */
+	static long pack(Game g) {
+		int xs = Integer.bitCount(g.xBits);
+		int os = Integer.bitCount(g.oBits);
+		// with as many X's as O's, the last move was the second player's, so the first is to play again
+		boolean oFirst = (os > xs) || (os == xs && g.whoseTurn == g.o);
+		return g.history | (long) g.historyLength << 36 | (long) g.state << 40 | (oFirst ? 1L << 42 : 0);
+	}
+
+	/**
+	 * Writes the line of a packed record into {@code line}.
+	 *
+	 * @return the number of characters written, including the line break
+	 */
+	static int format(long record, char[] line) {
+		int length = (int) (record >>> 36) & 0xF;
+		int state = (int) (record >>> 40) & 3;
+		int n = 0;
+		line[n++] = ((record >>> 42) & 1) != 0 ? 'O' : 'X';
+		for (int i = 0; i < length; i++)
+			line[n++] = (char) ('0' + ((record >>> (4 * i)) & 0xF));
+		line[n++] = state == Game.X_WON ? 'X' : state == Game.O_WON ? 'O' : state == Game.DRAW ? 'D' : 'F';
+		line[n++] = '\n';
+		return n;
+	}
+
+}
@@ -0,0 +1,111 @@
+package ticTacToe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A Tic Tac Toe Policy over the states of a {@link StateIndex}, stored as one cell per state ordinal rather than as a
+ * map from {@link Game} to {@link Move}. If the index is symmetric, the move stored for a canonical game is mapped to
+ * every game that is symmetric to it.
+ *
+ * Policies can be saved with {@link #save(String)} and loaded with {@link #load(String)}, which maps the file into
+ * memory and uses it as is, so a loaded policy can serve moves straight away without training.
+ *
+ */
+public class IndexedPolicy extends Policy {
+
+	final StateIndex states;
+
+	/**
+	 * the cell to play in each state (in the indexed game), -1 where the policy has no move
+	 */
+	final ByteBuffer cells;
+
+	/**
+	 * A policy with no moves, see {@link #setMove(int, int)}
+	 *
+	 * @param states
+	 */
+	public IndexedPolicy(StateIndex states) {
+		this.states = states;
+		byte[] cells = new byte[states.size()];
+		Arrays.fill(cells, (byte) -1);
+		this.cells = ByteBuffer.wrap(cells);
+	}
+
+	private IndexedPolicy(StateIndex states, ByteBuffer cells) {
+		this.states = states;
+		this.cells = cells;
+	}
+
+	/**
+	 * Loads a policy saved by {@link #save(String)}. The file is mapped into memory rather than read, and the policy
+	 * can't be changed.
+	 *
+	 * @param file
+	 * @return the policy
+	 * @throws IOException if the file can't be read or isn't a valid policy file
+	 */
+	public static IndexedPolicy load(String file) throws IOException {
+		TableFile table = TableFile.map(file, TableFile.POLICY, 1);
+		for (int s = 0; s < table.states.size(); s++) {
+			int cell = table.table.get(s);
+			if (cell < -1 || cell > 8 || (cell >= 0 && (table.states.legalMoves(s) & (1 << cell)) == 0))
+				throw new IOException(file + " has an illegal move in state " + table.states.hash(s));
+		}
+		return new IndexedPolicy(table.states, table.table);
+	}
+
+	/**
+	 * Saves this policy in the format described in {@link TableFile}: a short header followed by one byte per state.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(String file) throws IOException {
+		ByteBuffer data = cells.duplicate();
+		data.clear();
+		TableFile.write(file, TableFile.POLICY, states, data);
+	}
+
+	public StateIndex getStates() {
+		return states;
+	}
+
+	/**
+	 * Sets the move to play in a state.
+	 *
+	 * @param s    a state ordinal
+	 * @param cell the cell to play in {@code states.game(s)}, or -1 for no move
+	 */
+	public void setMove(int s, int cell) {
+		cells.put(s, (byte) cell);
+	}
+
+	/**
+	 *
+	 * @param s a state ordinal
+	 * @return the cell to play in {@code states.game(s)}, -1 if there is no move
+	 */
+	public int getCell(int s) {
+		return cells.get(s);
+	}
+
+	/**
+	 * Returns null if {@code g} (or a game symmetric to it) isn't in the index, or the policy has no move for it.
+	 */
+	@Override
+	public Move getMove(Game g) {
+		int s = states.ordinal(g);
+		if (s < 0)
+			return null;
+
+		int cell = cells.get(s);
+		if (cell < 0)
+			return null;
+
+		return Move.of(g.whoseTurn.getName(), states.gameCell(g, cell));
+	}
+
+}
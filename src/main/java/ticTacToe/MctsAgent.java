@@ -0,0 +1,378 @@
+package ticTacToe;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A Monte Carlo Tree Search agent using UCT, which needs no offline training: it plays random games (playouts) from
+ * the position it is asked about, grows a tree of the positions they go through, and plays the move that was explored
+ * the most. Its strength grows with the budget it is given per move, in playouts or in time.
+ *
+ * The tree lives in an arena of primitive arrays, indexed by node number, and the children of a node are allocated
+ * next to each other when it is expanded, so searching creates no objects. Positions are packed boards (see
+ * {@link BitBoard}) and playouts are played on them directly. Between moves of the same game the subtree of the
+ * position reached is kept, so the playouts spent on it earlier aren't lost. The tree is cleared when the position
+ * isn't in it, e.g. in a new game, or when the arena is over half full.
+ *
+ * The agent can play X or O. Every thread it is asked for moves on has a tree of its own, so an agent shared by games
+ * played in parallel (e.g. in a {@link Tournament}, where each thread plays its games one after the other) searches
+ * them in parallel and keeps the subtree of each game between its moves.
+ *
+ */
+public class MctsAgent extends Agent {
+
+	/**
+	 * the exploration constant of UCT
+	 */
+	static final double EXPLORATION = Math.sqrt(2);
+
+	/**
+	 * the number of nodes a tree holds by default
+	 */
+	static final int DEFAULT_CAPACITY = 1 << 18;
+
+	/**
+	 * the number of playouts per move, if there is no time budget
+	 */
+	int playoutBudget = 10000;
+
+	/**
+	 * the time allowed per move, in nanoseconds. 0 to use {@link #playoutBudget} instead.
+	 */
+	long timeBudget = 0;
+
+	/**
+	 * the tree of each thread, allocated the first time the thread asks for a move
+	 */
+	private final ThreadLocal<Tree> trees;
+
+	/**
+	 * the number of playouts played over all moves, and how long the searches took, guarded by this
+	 */
+	private long playouts = 0;
+	private long searchNanos = 0;
+
+	public MctsAgent() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 *
+	 * @param capacity the number of nodes each tree can hold, at least 10
+	 */
+	public MctsAgent(final int capacity) {
+		super(null);
+		if (capacity < 10)
+			throw new IllegalArgumentException("The tree should hold at least 10 nodes");
+		this.trees = new ThreadLocal<Tree>() {
+			protected Tree initialValue() {
+				return new Tree(capacity);
+			}
+		};
+	}
+
+	/**
+	 * Sets the number of playouts for each move, and turns off the time budget.
+	 *
+	 * @param playouts at least 1
+	 */
+	public void setPlayoutBudget(int playouts) {
+		if (playouts < 1)
+			throw new IllegalArgumentException("The budget should be at least one playout");
+		this.playoutBudget = playouts;
+		this.timeBudget = 0;
+	}
+
+	/**
+	 * Sets the time allowed for each move. At least one playout is played however short it is.
+	 *
+	 * @param millis more than 0
+	 */
+	public void setTimeBudget(long millis) {
+		if (millis <= 0)
+			throw new IllegalArgumentException("The time budget should be more than 0");
+		this.timeBudget = millis * 1000000;
+	}
+
+	/**
+	 * Searches from {@code g} within the budget and returns the move explored the most.
+	 */
+	public Move getMove(Game g) {
+		if (g.isTerminal())
+			return null;
+
+		long start = System.nanoTime();
+		Tree tree = trees.get();
+		tree.findRoot(g.xBits, g.oBits, g.whoseTurn.getName());
+
+		int n = 0;
+		do {
+			tree.playout();
+			n++;
+		} while (timeBudget == 0 ? n < playoutBudget : ((n & 63) != 0 || System.nanoTime() - start < timeBudget));
+
+		record(n, System.nanoTime() - start);
+		return Move.of(g.whoseTurn.getName(), tree.mostVisited());
+	}
+
+	private synchronized void record(int n, long nanos) {
+		playouts += n;
+		searchNanos += nanos;
+	}
+
+	/**
+	 * A search tree in an arena of primitive arrays.
+	 */
+	private static final class Tree {
+
+		/**
+		 * The nodes: the pieces of each side, the player to move ('X' or 'O') and the state of the game (see
+		 * {@link Game#getState()}) in the node's position, and the cell played to get there from its parent.
+		 */
+		final short[] xBits;
+		final short[] oBits;
+		final char[] toMove;
+		final byte[] states;
+		final byte[] cells;
+
+		/**
+		 * the children of node {@code n} are nodes {@code firstChild[n]} to {@code firstChild[n]+childCount[n]-1}
+		 */
+		final int[] parents;
+		final int[] firstChild;
+		final byte[] childCount;
+
+		/**
+		 * the number of playouts through each node, and their total score for the player who moved into the node: 1
+		 * for a win, 0.5 for a draw.
+		 */
+		final int[] visits;
+		final double[] scores;
+
+		/**
+		 * the number of nodes in use
+		 */
+		int size = 0;
+
+		int root = -1;
+
+		Tree(int capacity) {
+			xBits = new short[capacity];
+			oBits = new short[capacity];
+			toMove = new char[capacity];
+			states = new byte[capacity];
+			cells = new byte[capacity];
+			parents = new int[capacity];
+			firstChild = new int[capacity];
+			childCount = new byte[capacity];
+			visits = new int[capacity];
+			scores = new double[capacity];
+		}
+
+		/**
+		 * Makes the node of the given position the root: the root itself, one of its children or grandchildren if
+		 * the game has moved on since the last search, or a new tree otherwise. The new root is always expanded.
+		 */
+		void findRoot(int x, int o, char turn) {
+			int found = -1;
+			if (root >= 0 && size <= xBits.length / 2) {
+				if (matches(root, x, o, turn))
+					found = root;
+				for (int c = firstChild[root]; found < 0 && c < firstChild[root] + childCount[root]; c++) {
+					if (matches(c, x, o, turn))
+						found = c;
+					for (int gc = firstChild[c]; found < 0 && gc < firstChild[c] + childCount[c]; gc++)
+						if (matches(gc, x, o, turn))
+							found = gc;
+				}
+			}
+
+			if (found >= 0 && childCount[found] == 0)
+				expand(found);
+			// a kept leaf that there is no room to expand, in a small tree
+			if (found >= 0 && childCount[found] == 0)
+				found = -1;
+
+			if (found < 0) {
+				size = 0;
+				found = node(-1, x, o, turn, -1);
+				// a new tree always has room for the 9 children at most
+				expand(found);
+			}
+			root = found;
+		}
+
+		boolean matches(int n, int x, int o, char turn) {
+			return xBits[n] == x && oBits[n] == o && toMove[n] == turn;
+		}
+
+		/**
+		 * Allocates a node with no children.
+		 *
+		 * @return its number
+		 */
+		int node(int parent, int x, int o, char turn, int cell) {
+			int n = size++;
+			xBits[n] = (short) x;
+			oBits[n] = (short) o;
+			toMove[n] = turn;
+			states[n] = (byte) BitBoard.evaluate(x, o);
+			cells[n] = (byte) cell;
+			parents[n] = parent;
+			childCount[n] = 0;
+			visits[n] = 0;
+			scores[n] = 0;
+			return n;
+		}
+
+		/**
+		 * Adds a child to {@code n} for every legal move, if there is room for them.
+		 */
+		void expand(int n) {
+			int moves = BitBoard.empty(xBits[n], oBits[n]);
+			if (size + Integer.bitCount(moves) > xBits.length)
+				return;
+
+			char turn = toMove[n];
+			char next = (turn == 'X') ? 'O' : 'X';
+			firstChild[n] = size;
+			childCount[n] = (byte) Integer.bitCount(moves);
+			for (; moves != 0; moves &= moves - 1) {
+				int cell = Integer.numberOfTrailingZeros(moves);
+				int x = xBits[n];
+				int o = oBits[n];
+				if (turn == 'X')
+					x |= 1 << cell;
+				else
+					o |= 1 << cell;
+				node(n, x, o, next, cell);
+			}
+		}
+
+		/**
+		 * One iteration of MCTS: selects a leaf by UCT, expands it if it has been visited before, plays a random game
+		 * from it and backs the result up to the root.
+		 */
+		void playout() {
+			int n = root;
+			while (childCount[n] > 0)
+				n = select(n);
+
+			if (states[n] == Game.ONGOING && visits[n] > 0) {
+				expand(n);
+				if (childCount[n] > 0)
+					n = firstChild[n];
+			}
+
+			int result = (states[n] == Game.ONGOING) ? rollout(xBits[n], oBits[n], toMove[n] == 'X') : states[n];
+
+			while (true) {
+				visits[n]++;
+				// the score is for the player who moved into n, i.e. not the one to move in it
+				if (result == Game.DRAW)
+					scores[n] += 0.5;
+				else if ((result == Game.X_WON) == (toMove[n] == 'O'))
+					scores[n] += 1;
+				if (n == root)
+					break;
+				n = parents[n];
+			}
+		}
+
+		/**
+		 *
+		 * @return the child of {@code n} with the highest upper confidence bound, or the first that hasn't been
+		 *         visited
+		 */
+		int select(int n) {
+			double logVisits = Math.log(visits[n]);
+			int best = -1;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int c = firstChild[n], end = c + childCount[n]; c < end; c++) {
+				if (visits[c] == 0)
+					return c;
+				double ucb = scores[c] / visits[c] + EXPLORATION * Math.sqrt(logVisits / visits[c]);
+				if (ucb > max) {
+					max = ucb;
+					best = c;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 *
+		 * @return the cell of the root's most visited child
+		 */
+		int mostVisited() {
+			int best = firstChild[root];
+			for (int c = best + 1; c < firstChild[root] + childCount[root]; c++)
+				if (visits[c] > visits[best])
+					best = c;
+			return cells[best];
+		}
+
+	}
+
+	/**
+	 * Plays uniformly random moves from the given position to the end of the game.
+	 *
+	 * @return how the game ended: {@link Game#X_WON}, {@link Game#O_WON} or {@link Game#DRAW}
+	 */
+	static int rollout(int x, int o, boolean xToMove) {
+		ThreadLocalRandom r = ThreadLocalRandom.current();
+		while (true) {
+			int empty = BitBoard.empty(x, o);
+			int bit = 1 << BitBoard.nthCell(empty, r.nextInt(Integer.bitCount(empty)));
+			if (xToMove) {
+				x |= bit;
+				if (BitBoard.hasLine(x))
+					return Game.X_WON;
+			} else {
+				o |= bit;
+				if (BitBoard.hasLine(o))
+					return Game.O_WON;
+			}
+			if ((x | o) == BitBoard.FULL)
+				return Game.DRAW;
+			xToMove = !xToMove;
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of playouts through the root of the calling thread's tree, which is more than were played for
+	 *         its last move if part of the tree was kept from the move before
+	 */
+	public int getRootVisits() {
+		Tree tree = trees.get();
+		return tree.root < 0 ? 0 : tree.visits[tree.root];
+	}
+
+	/**
+	 *
+	 * @return the number of playouts played over all moves
+	 */
+	public synchronized long getPlayouts() {
+		return playouts;
+	}
+
+	/**
+	 *
+	 * @return the number of playouts per second over all moves
+	 */
+	public synchronized double getPlayoutsPerSecond() {
+		return searchNanos == 0 ? 0 : playouts * 1e9 / searchNanos;
+	}
+
+	public static void main(String a[]) throws IllegalMoveException {
+		// Test method to play the agent against a human agent.
+		MctsAgent agent = new MctsAgent();
+		HumanAgent d = new HumanAgent();
+
+		Game g = new Game(agent, d, d);
+		g.setListener(new ConsoleGameListener());
+		g.playOut();
+		System.out.println((int) agent.getPlayoutsPerSecond() + " playouts/s");
+	}
+
+}
@@ -0,0 +1,176 @@
+package ticTacToe;
+
+/**
+ * A perfect-play agent that searches the game tree rather than learning from an MDP. It solves the whole game once, by
+ * negamax with alpha-beta pruning over {@link Game#play(int)} and {@link Game#undo(int)}, with a transposition table
+ * indexed by {@link Game#hashCode()}. Then it stores the best move of every valid game, whoever's turn it is, in a
+ * {@link Policy}, so {@link #getMove} is a table lookup and the agent can play X or O.
+ *
+ * Scores are from the point of view of the player to move: a win is worth one more than the number of empty cells left
+ * when it happens and a loss the opposite, so the agent wins as fast as it can and loses as slowly as it can. A draw is
+ * worth 0.
+ *
+ */
+public class MinimaxAgent extends Agent {
+
+	/**
+	 * larger than any score
+	 */
+	static final int INFINITY = 100;
+
+	/**
+	 * how a table entry's score relates to the game's true score
+	 */
+	static final int EXACT = 1;
+	static final int LOWER_BOUND = 2;
+	static final int UPPER_BOUND = 3;
+
+	/**
+	 * The transposition table: for every game hash, the kind of entry (0 if the game hasn't been searched, otherwise
+	 * {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}), its score and the best move found.
+	 */
+	private final byte[] kinds = new byte[StateIndex.HASHES];
+	private final byte[] scores = new byte[StateIndex.HASHES];
+	private final byte[] bestCells = new byte[StateIndex.HASHES];
+
+	/**
+	 * the number of positions searched while solving, and how long it took
+	 */
+	private long nodes = 0;
+	private long solveNanos = 0;
+
+	/**
+	 * Solves the game and sets the agent's policy.
+	 */
+	public MinimaxAgent() {
+		solve();
+	}
+
+	/**
+	 * Searches every valid game with a full window, so that the table holds the exact score and best move of each,
+	 * and builds the policy from them.
+	 */
+	private void solve() {
+		long start = System.nanoTime();
+		Policy policy = new Policy();
+		boolean[] visited = new boolean[StateIndex.HASHES];
+		visit(new Game('X'), visited, policy);
+		visit(new Game('O'), visited, policy);
+		this.policy = policy;
+		this.solveNanos = System.nanoTime() - start;
+	}
+
+	/**
+	 * Solves {@code g} and every game reachable from it that hasn't been visited yet.
+	 */
+	private void visit(Game g, boolean[] visited, Policy policy) {
+		int hash = g.hashCode();
+		if (visited[hash])
+			return;
+		visited[hash] = true;
+		if (g.isTerminal())
+			return;
+
+		negamax(g, -INFINITY, INFINITY);
+		policy.put(g, Move.of(g.whoseTurn.getName(), bestCells[hash]));
+		for (int moves = g.getLegalMoves(); moves != 0; moves &= moves - 1) {
+			int cell = Integer.numberOfTrailingZeros(moves);
+			g.play(cell);
+			visit(g, visited, policy);
+			g.undo(cell);
+		}
+	}
+
+	/**
+	 *
+	 * @return the score of {@code g} for the player to move if it is between {@code alpha} and {@code beta}, otherwise
+	 *         a bound on it: at most {@code alpha}, or at least {@code beta}
+	 */
+	private int negamax(Game g, int alpha, int beta) {
+		nodes++;
+		int hash = g.hashCode();
+		int kind = kinds[hash];
+		if (kind != 0) {
+			int score = scores[hash];
+			if (kind == EXACT || (kind == LOWER_BOUND && score >= beta) || (kind == UPPER_BOUND && score <= alpha))
+				return score;
+		}
+
+		if (g.isTerminal()) {
+			// the player to move has lost if the game was won, as the winner moved last
+			int score = (g.getState() == Game.DRAW) ? 0 : -(1 + Integer.bitCount(BitBoard.empty(g.xBits, g.oBits)));
+			store(hash, EXACT, score, -1);
+			return score;
+		}
+
+		int moves = g.getLegalMoves();
+		// try the best move of an earlier search first, as it is the most likely to cut off, then the others in order
+		int cell = (kind != 0) ? bestCells[hash] : Integer.numberOfTrailingZeros(moves);
+		int rest = moves & ~(1 << cell);
+		int best = -INFINITY;
+		int bestCell = cell;
+		int originalAlpha = alpha;
+		while (true) {
+			g.play(cell);
+			int score = -negamax(g, -beta, -alpha);
+			g.undo(cell);
+			if (score > best) {
+				best = score;
+				bestCell = cell;
+			}
+			if (score > alpha)
+				alpha = score;
+			if (alpha >= beta || rest == 0)
+				break;
+			cell = Integer.numberOfTrailingZeros(rest);
+			rest &= rest - 1;
+		}
+
+		store(hash, best <= originalAlpha ? UPPER_BOUND : best >= beta ? LOWER_BOUND : EXACT, best, bestCell);
+		return best;
+	}
+
+	private void store(int hash, int kind, int score, int bestCell) {
+		kinds[hash] = (byte) kind;
+		scores[hash] = (byte) score;
+		bestCells[hash] = (byte) bestCell;
+	}
+
+	/**
+	 *
+	 * @param g a valid game
+	 * @return the score of {@code g} with perfect play, for the player to move: positive if they win, 0 for a draw and
+	 *         negative if they lose
+	 */
+	public int getScore(Game g) {
+		return scores[g.hashCode()];
+	}
+
+	/**
+	 *
+	 * @return the number of positions searched to solve the game
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 *
+	 * @return how long solving the game took, in nanoseconds
+	 */
+	public long getSolveNanos() {
+		return solveNanos;
+	}
+
+	public static void main(String a[]) throws IllegalMoveException {
+		// Test method to play the agent against a human agent.
+		MinimaxAgent agent = new MinimaxAgent();
+		System.out.println("Solved in " + agent.getSolveNanos() / 1000000 + "ms, " + agent.getNodes() + " positions");
+		HumanAgent d = new HumanAgent();
+
+		Game g = new Game(agent, d, d);
+		g.setListener(new ConsoleGameListener());
+		g.playOut();
+	}
+
+}
@@ -2,6 +2,9 @@ package ticTacToe;
 
 /**
  * A move in the Tic-Tac-Toe game. If the game is modelled as an MDP, a Move is essentially an MDP Action.
+ * 
+ * There are only 18 different moves, so rather than creating new ones use {@link #of(char, int)}, which always returns
+ * the same instance for the same move. Moves can't be changed.
  * @author ae187
  *
  */
@@ -10,17 +13,68 @@ public class Move {
 	/**
 	 * can be either 'X', or 'O' 
 	 */
-	public Agent who;
-	public int x;
-	public int y;
+	public final Agent who;
+	public final int x;
+	public final int y;
+	
+	/**
+	 * Agents that only hold the name 'X' or 'O', shared by all moves created from a name rather than an agent.
+	 */
+	private static final Agent X=new Agent();
+	private static final Agent O=new Agent();
+	
+	/**
+	 * MOVES[cell] is X's move in cell, MOVES[9+cell] is O's.
+	 */
+	private static final Move[] MOVES=new Move[18];
+	
+	static {
+		X.setName('X');
+		O.setName('O');
+		for(int cell=0;cell<9;cell++)
+		{
+			MOVES[cell]=new Move(X, cell/3, cell%3);
+			MOVES[9+cell]=new Move(O, cell/3, cell%3);
+		}
+	}
+	
+	/**
+	 * 
+	 * @param who 'X' or 'O'
+	 * @param cell {@code 3*x+y}
+	 * @return the shared instance of {@code who}'s move in {@code cell}
+	 */
+	public static Move of(char who, int cell)
+	{
+		if (cell<0 || cell>8)
+			throw new IllegalArgumentException("Invalid cell:"+cell);
+		if (who=='X')
+			return MOVES[cell];
+		if (who=='O')
+			return MOVES[9+cell];
+		throw new IllegalArgumentException("Can only be a move by X or by O");
+	}
+	
+	/**
+	 * 
+	 * @param who 'X' or 'O'
+	 * @param x
+	 * @param y
+	 * @return the shared instance of {@code who}'s move in {@code (x,y)}
+	 */
+	public static Move of(char who, int x, int y)
+	{
+		if (x<0 || x>2 || y<0 || y>2)
+			throw new IllegalArgumentException("Invalid x or y coordinates");
+		return of(who, 3*x+y);
+	}
 	
 	public Move(char who, int x, int y)
 	{
 		if (who!='X' && who!='O')
 			throw new IllegalArgumentException("Can only be a move by X or by O");
 		
-		this.who=new Agent();
-		this.who.setName(who);
+		this.who=(who=='X')?X:O;
 		
 		if (x<0 || x>2 || y<0 || y>2)
 			throw new IllegalArgumentException("Invalid x or y coordinates");
@@ -49,6 +103,15 @@ public class Move {
 	
 	}
 	
+	/**
+	 * 
+	 * @return the cell of this move: {@code 3*x+y}
+	 */
+	public int cell()
+	{
+		return 3*x+y;
+	}
+	
 	public String toString()
 	{
 		return who+"("+x+","+y+")";
@@ -0,0 +1,90 @@
+package ticTacToe;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a sweep over the ordinals {@code 0..size-1} of a {@link StateIndex} on a {@link ForkJoinPool}, by recursively
+ * splitting the range until the pieces are small enough to hand to a {@link Kernel}. Kernels must only write to the
+ * states in the range they are given, so that the result doesn't depend on how the range is split or scheduled.
+ *
+ */
+final class ParallelSweep {
+
+	/**
+	 * The work done on one piece of a sweep.
+	 */
+	interface Kernel {
+
+		/**
+		 * Processes states {@code from} (inclusive) to {@code to} (exclusive).
+		 *
+		 * @return the largest change made to any state's value in the range (the residual)
+		 */
+		double run(int from, int to);
+	}
+
+	/**
+	 * ranges are not split below this many states
+	 */
+	static final int MIN_CHUNK = 128;
+
+	private ParallelSweep() {
+	}
+
+	/**
+	 * Runs {@code kernel} over {@code 0..size-1} on {@code pool} and waits for it to finish.
+	 *
+	 * @return the largest residual returned by any piece
+	 */
+	static double run(ForkJoinPool pool, int size, Kernel kernel) {
+		return run(pool, 0, size, kernel);
+	}
+
+	/**
+	 * Runs {@code kernel} over {@code from..to-1} on {@code pool} and waits for it to finish.
+	 *
+	 * @return the largest residual returned by any piece
+	 */
+	static double run(ForkJoinPool pool, int from, int to, Kernel kernel) {
+		// aim for a few pieces per worker so that uneven pieces even out
+		int chunk = Math.max(MIN_CHUNK, (to - from) / (4 * pool.getParallelism()));
+		Task task = new Task(from, to, chunk, kernel);
+		pool.invoke(task);
+		return task.residual;
+	}
+
+	private static class Task extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final int from;
+		final int to;
+		final int chunk;
+		final Kernel kernel;
+
+		double residual;
+
+		Task(int from, int to, int chunk, Kernel kernel) {
+			this.from = from;
+			this.to = to;
+			this.chunk = chunk;
+			this.kernel = kernel;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= chunk) {
+				residual = kernel.run(from, to);
+				return;
+			}
+
+			int mid = (from + to) >>> 1;
+			Task left = new Task(from, mid, chunk, kernel);
+			Task right = new Task(mid, to, chunk, kernel);
+			invokeAll(left, right);
+			residual = Math.max(left.residual, right.residual);
+		}
+	}
+
+}
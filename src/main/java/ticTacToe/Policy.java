@@ -1,33 +1,62 @@
 package ticTacToe;
 
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.Map;
 
 /**
- * A Tic Tac Toe Policy implemented via a HashMap
+ * A Tic Tac Toe Policy implemented as a table indexed by {@link Game#hashCode}, so looking up a move is an array access
+ * and creates no objects.
  * @author ae187
  *
  */
 public class Policy {
 	
 	/**
-	 * a hash map that stores the policy
+	 * the move to play in the game with each hash: 0 for none, {@code 1+cell} for X's moves and {@code 10+cell} for O's.
+	 * Only allocated once the first move is put, so policies that override {@link #getMove} don't pay for it.
 	 */
-	HashMap<Game, Move> policy=new HashMap<Game, Move>();
+	private byte[] moves;
 	
 	/**
-	 * Create policy according to this map
+	 * Create policy according to this map. The moves are copied, so later changes to the map don't change the policy.
 	 * @param policy
 	 */
 	public Policy(HashMap<Game, Move> policy) {
-		this.policy=policy;
+		for(Map.Entry<Game, Move> e: policy.entrySet())
+			put(e.getKey(), e.getValue());
 	}
 	
 	public Policy()
 	{}
 	
 	/**
-	 * Default behaviour here is that if the game state is not in the policy map {@link Policy#policy} then the policy returns null.
+	 * Sets the move to play in game {@code g}, replacing any move there was.
+	 * 
+	 * @param g
+	 * @param m the move, or null to remove it
+	 */
+	public void put(Game g, Move m)
+	{
+		if (moves==null)
+			moves=new byte[StateIndex.HASHES];
+		
+		moves[g.hashCode()]=(byte) (m==null ? 0 : 1+(m.who.getName()=='O' ? 9 : 0)+m.cell());
+	}
+	
+	/**
+	 * 
+	 * @param code an entry of {@link #moves}, more than 0
+	 * @return the move it stands for
+	 */
+	private static Move move(int code)
+	{
+		return code>9 ? Move.of('O', code-10) : Move.of('X', code-1);
+	}
+	
+	/**
+	 * Default behaviour here is that if the game state is not in the policy table {@link Policy#moves} then the policy returns null.
 	 * You can override this method for different behaviours, e.g. returning a random move if this happens.
 	 *  
 	 * @param g
@@ -35,30 +64,43 @@ public class Policy {
 	 */
 	public Move getMove(Game g) {
 		
-		if (policy.containsKey(g))
-			return policy.get(g);
+		if (moves==null)
+			return null;
+		
+		int code=moves[g.hashCode()];
+		if (code==0)
+			return null;
 		
-		return null;
+		return move(code);
 		
 		
 	}
 	
 	/**
-	 * loads policy from file. One possible format for storing a policy is as a sequence of lines where each line
-	 * specifies the action/move determined by the policy in a particular game state. The game states should not
-	 * explicitly stored, only their hashes are stored. The {@link Game} object itself can be constructed using the 
-	 * {@link Game#inverseHash} method.
+	 * Loads a policy from a file written by {@link IndexedPolicy#save(String)}, in the binary format described in 
+	 * {@link TableFile}: a header naming the {@link StateIndex} the policy is over, followed by one byte per state 
+	 * ordinal holding the cell to play, or -1 for none. Every move is copied into the byte table indexed by 
+	 * {@link Game#hashCode} that this class looks moves up in, so the file isn't needed once loaded. 
+	 * {@link IndexedPolicy#load(String)} is faster, as it uses the file as is rather than copying its moves.
 	 *  
 	 * @param file
+	 * @throws IOException if the file can't be read or isn't a valid policy file
 	 */
-	public Policy(String file)
+	public Policy(String file) throws IOException
 	{
-		/* implement this constructor to load a stored policy from file. */
+		IndexedPolicy loaded=IndexedPolicy.load(file);
+		StateIndex states=loaded.getStates();
+		for(int hash=0;hash<StateIndex.HASHES;hash++)
+		{
+			if (states.ordinalOfHash(hash)<0)
+				continue;
+			
+			Game g=Game.inverseHash(hash);
+			Move m=loaded.getMove(g);
+			if (m!=null)
+				put(g, m);
+		}
 		
 	}
 
-	
-	
-	
-
 }
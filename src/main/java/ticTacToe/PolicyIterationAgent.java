@@ -1,10 +1,8 @@
 package ticTacToe;
 
 
-import java.util.HashMap;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Random;
-import java.util.Map;
 /**
  * A policy iteration agent. You should implement the following methods:
  * (1) {@link PolicyIterationAgent#evaluatePolicy}: this is the policy evaluation step from your lectures
@@ -23,14 +21,21 @@ import java.util.Map;
 public class PolicyIterationAgent extends Agent {
 
 	/**
-	 * This map is used to store the values of states according to the current policy (policy evaluation). 
+	 * The states of the MDP: all valid games where it is X's turn, or that are terminal.
 	 */
-	HashMap<Game, Double> policyValues=new HashMap<Game, Double>();
+	StateIndex states;
 	
 	/**
-	 * This stores the current policy as a map from {@link Game}s to {@link Move}. 
+	 * This array is used to store the values of states according to the current policy (policy evaluation), indexed by
+	 * their ordinal in {@link #states}. 
 	 */
-	HashMap<Game, Move> curPolicy=new HashMap<Game, Move>();
+	double[] policyValues;
+	
+	/**
+	 * This stores the current policy as the cell (3*x+y) to play in each state, indexed by ordinal in {@link #states}. 
+	 * Terminal states have no move and are set to -1.
+	 */
+	byte[] curPolicy;
 	
 	double discount=0.9;
 	
@@ -40,7 +45,55 @@ public class PolicyIterationAgent extends Agent {
 	TTTMDP mdp;
 	
 	/**
-	 * loads the policy from file if one exists. Policies should be stored in .pol files directly under the project folder.
+	 * Policy evaluation modes, see {@link #evaluationMode}
+	 */
+	public static final int GAUSS_SEIDEL = 0;
+	public static final int BACK_SUBSTITUTION = 1;
+	
+	/**
+	 * How {@link #evaluatePolicy} computes the values of the current policy. {@link #GAUSS_SEIDEL} sweeps over all states, 
+	 * updating values in place, until the largest change in a sweep is less than delta. {@link #BACK_SUBSTITUTION} uses the 
+	 * fact that every move adds a piece to the board, so the policy's states form a DAG: backing up the states with the most 
+	 * pieces first gives every state its exact value in a single pass.
+	 */
+	int evaluationMode = BACK_SUBSTITUTION;
+	
+	/**
+	 * the most sweeps a {@link #GAUSS_SEIDEL} evaluation will do
+	 */
+	int maxSweeps = 1000;
+	
+	/**
+	 * If this is more than 0 the agent does modified policy iteration: each evaluation step is just this many 
+	 * {@link #GAUSS_SEIDEL} sweeps, whatever {@link #evaluationMode} is, and training only stops once the policy is stable 
+	 * and the last sweep's residual is less than {@link #delta}. With 0 (the default) each policy is fully evaluated. 
+	 */
+	int evaluationSweeps = 0;
+	
+	/**
+	 * the number of states whose action was changed by the last call to {@link #improvePolicy}
+	 */
+	int changes = 0;
+	
+	/**
+	 * statistics of every policy evaluation sweep done by the last call to {@link #train}
+	 */
+	SolverMetrics metrics = new SolverMetrics();
+	
+	/**
+	 * the number of rounds of evaluation and improvement done by the last call to {@link #train}
+	 */
+	int rounds = 0;
+	
+	/**
+	 * If true {@link #states} only holds one game of every class of symmetric games (see {@link StateIndex}), so the 
+	 * policy and its values are stored and solved for about an eighth of the states.
+	 */
+	boolean symmetric = false;
+	
+	/**
+	 * This constructor trains the agent offline first and sets its policy. To use a saved policy instead, call 
+	 * {@link #loadPolicyFromFile(String)} or use {@link #PolicyIterationAgent(Policy)}.
 	 */
 	public PolicyIterationAgent() {
 		super();
@@ -92,35 +145,38 @@ public class PolicyIterationAgent extends Agent {
 		train();
 	}
 	/**
-	 * Initialises the {@link #policyValues} map, and sets the initial value of all states to 0 
-	 * (V0 under some policy pi ({@link #curPolicy} from the lectures). Uses {@link Game#inverseHash} and {@link Game#generateAllValidGames(char)} to do this. 
+	 * Initialises the {@link #policyValues} array, and sets the initial value of all states to 0 
+	 * (V0 under some policy pi ({@link #curPolicy} from the lectures). Uses {@link StateIndex} and {@link Game#generateAllValidGames(char)} to do this. 
 	 * 
 	 */
 	public void initValues()
 	{
-		List<Game> allGames=Game.generateAllValidGames('X');//all valid games where it is X's turn, or it's terminal.
-		for(Game g: allGames)
-			this.policyValues.put(g, 0.0);
+		this.states=StateIndex.of('X', symmetric);//all valid games where it is X's turn, or it's terminal.
+		this.policyValues=new double[states.size()];
+		this.curPolicy=new byte[states.size()];
 		
 	}
 	
 	/**
 	 *  You should implement this method to initially generate a random policy, i.e. fill the {@link #curPolicy} for every state. Take care that the moves you choose
-	 *  for each state ARE VALID. You can use the {@link Game#getPossibleMoves()} method to get a list of valid moves and choose 
+	 *  for each state ARE VALID. You can use {@link StateIndex#legalMoves(int)} to get the valid moves and choose 
 	 *  randomly between them. 
 	 */
 	public void initRandomPolicy()
 	{
 		Random rand = new Random();
-		List<Move> moves; // list of all possible moves from game state (game)
-		for (Game game : this.policyValues.keySet()){
+		for (int s = 0; s < states.size(); s++){
 
-			// if g is terminal, skip it
-			if (game.isTerminal())
+			// if g is terminal, it has no move
+			int moves = states.legalMoves(s); // all possible moves from game state s, as a mask of cells
+			if (moves == 0) {
+				this.curPolicy[s] = -1;
 				continue;
-			moves = game.getPossibleMoves(); // store the list of all possible moves from game state g in (move)
-			// put random moves in curPolicy for g
-			this.curPolicy.put(game, moves.get(rand.nextInt(moves.size())));
+			}
+			// put a random move in curPolicy for s: skip a random number of the available cells
+			for (int n = rand.nextInt(Integer.bitCount(moves)); n > 0; n--)
+				moves &= moves - 1;
+			this.curPolicy[s] = (byte) Integer.numberOfTrailingZeros(moves);
 		}
 	}
 	
@@ -128,36 +184,130 @@ public class PolicyIterationAgent extends Agent {
 	/**
 	 * Performs policy evaluation steps until the maximum change in values is less than {@code delta}, in other words
 	 * until the values under the currrent policy converge. After running this method, 
-	 * the {@link PolicyIterationAgent#policyValues} map should contain the values of each reachable state under the current policy. 
+	 * the {@link PolicyIterationAgent#policyValues} array should contain the values of each reachable state under the current policy. 
 	 * You should use the {@link TTTMDP} {@link PolicyIterationAgent#mdp} provided to do this.
+	 * 
+	 * How the values are computed depends on {@link #evaluationMode}. With {@link #BACK_SUBSTITUTION} (the default) this 
+	 * is a single exact pass and {@code delta} is not used.
 	 *
 	 * @param delta
 	 */
 	protected void evaluatePolicy(double delta)
 	{
 		/* YOUR CODE HERE */
-		for (Game game : this.policyValues.keySet()){
-			if (game.isTerminal()){//terminal states have no future rewards their value is always 0
-				this.policyValues.put(game, 0.0);
-				continue;
+		TransitionTable model = this.mdp.compile(states);// the mdp's transitions over our states, in primitive arrays
+		if (evaluationSweeps > 0) {
+			// modified policy iteration: a fixed number of sweeps
+			for (int sweep = 0; sweep < evaluationSweeps; sweep++) {
+				long start = System.nanoTime();
+				double residual = 0;
+				for (int s = 0; s < states.size(); s++)
+					residual = Math.max(residual, backup(model, s));
+				metrics.record(residual, System.nanoTime() - start, states.size());
 			}
-			double Sum, Prev;
-			do {
-				Sum = 0;// reset the q-value accumulator for the current state
-				for (TransitionProb tp : this.mdp.generateTransitions(game, this.curPolicy.get(game))) {// iterate over all possible transitions for the current action in the policy
-					Sum += tp.prob * (tp.outcome.localReward + (discount * this.policyValues.get(tp.outcome.sPrime)));// update the q-value with the transition probability, local reward, and discounted future value
-				}
-
-				
-				Prev = this.policyValues.get(game);// save the old value for convergence checking
-				this.policyValues.put(game, Sum);//update 
-
-				//repeat until the change in value is < the convergence threshold delta
-			} while (Math.abs(this.policyValues.get(game)-Prev) > delta);
-
+			return;
+		}
+		
+		if (evaluationMode == BACK_SUBSTITUTION) {
+			long start = System.nanoTime();
+			// states with more pieces first: their successors already have their final values
+			double residual = 0;
+			for (int i = states.size() - 1; i >= 0; i--) {
+				int s = states.byPieces(i);
+				residual = Math.max(residual, backup(model, s));
+			}
+			metrics.record(residual, System.nanoTime() - start, states.size());
+			return;
+		}
+		
+		for (int sweep = 0; sweep < maxSweeps; sweep++) {
+			long start = System.nanoTime();
+			double residual = 0;
+			for (int s = 0; s < states.size(); s++)
+				residual = Math.max(residual, backup(model, s));
+			metrics.record(residual, System.nanoTime() - start, states.size());
+			
+			//repeat until the change in value is < the convergence threshold delta
+			if (residual < delta)
+				break;
 		}
 		
 	}
+	
+	/**
+	 * Sets the value of state {@code s} to the q-value of the action the current policy takes in it.
+	 * 
+	 * @param model
+	 * @param s
+	 * @return the change in the state's value
+	 */
+	private double backup(TransitionTable model, int s)
+	{
+		double Prev = this.policyValues[s];// save the old value for convergence checking
+		double Sum = 0;//terminal states have no future rewards their value is always 0
+		if (this.curPolicy[s] >= 0)
+			// the q-value of the current action in the policy: sum over all possible transitions of the transition probability 
+			// times the local reward plus discounted future value
+			Sum = model.qValue(s, this.curPolicy[s], this.policyValues, discount);
+		
+		this.policyValues[s] = Sum;//update 
+		return Math.abs(Sum - Prev);
+	}
+	
+	/**
+	 * Sets how policies are evaluated, see {@link #evaluationMode}. Takes effect the next time the agent is trained.
+	 * 
+	 * @param mode either {@link #GAUSS_SEIDEL} or {@link #BACK_SUBSTITUTION}
+	 */
+	public void setEvaluationMode(int mode)
+	{
+		if (mode != GAUSS_SEIDEL && mode != BACK_SUBSTITUTION)
+			throw new IllegalArgumentException("Unknown evaluation mode:" + mode);
+		this.evaluationMode = mode;
+	}
+	
+	/**
+	 * Sets the number of evaluation sweeps between policy improvement steps, see {@link #evaluationSweeps}. Takes effect 
+	 * the next time the agent is trained.
+	 * 
+	 * @param m the number of sweeps, or 0 to fully evaluate each policy
+	 */
+	public void setEvaluationSweeps(int m)
+	{
+		if (m < 0)
+			throw new IllegalArgumentException("the number of sweeps should not be negative");
+		this.evaluationSweeps = m;
+	}
+	
+	/**
+	 * Turns symmetry reduction on or off, see {@link #symmetric}. This re-initialises the states, so takes effect the next
+	 * time the agent is trained.
+	 * 
+	 * @param symmetric
+	 */
+	public void setSymmetryReduction(boolean symmetric)
+	{
+		this.symmetric = symmetric;
+		initValues();
+	}
+	
+	/**
+	 * 
+	 * @return the residual, time and number of states updated in every policy evaluation sweep of the last training run
+	 */
+	public SolverMetrics getMetrics()
+	{
+		return metrics;
+	}
+	
+	/**
+	 * 
+	 * @return the number of rounds of policy evaluation and improvement in the last training run
+	 */
+	public int getRounds()
+	{
+		return rounds;
+	}
 		
 	
 	
@@ -170,32 +320,39 @@ public class PolicyIterationAgent extends Agent {
 	protected boolean improvePolicy()
 	{
 		/* YOUR CODE HERE */
-		Policy copy_policy = new Policy();
-		for (Map.Entry<Game, Move> entry : this.curPolicy.entrySet())// copy all existing state-action mappings into the backup policy
-		{
-			copy_policy.policy.put(entry.getKey(), entry.getValue());
+		TransitionTable model = this.mdp.compile(states);
+		this.changes = 0;
+		for(int s = 0; s < states.size(); s++){//single-step expectimax for policy improvement
+			if (this.curPolicy[s] < 0)
+				continue;// terminal states have no moves
 			
-		}		
-		for(Game game : this.curPolicy.keySet()){//single-step expectimax for policy improvement
-			double pre_value = this.policyValues.get(game);
-			for (Move move : game.getPossibleMoves()){
-				double Sum = 0;// reset q-value for the current move
-				for(TransitionProb t : this.mdp.generateTransitions(game,move)){//calculate the q-value for this move by considering all possible outcomes
-					Sum += t.prob*(t.outcome.localReward+(discount*this.policyValues.get(t.outcome.sPrime)));// update the q-value with the transition probability, local reward, and discounted future value
-				}
+			// the q-value of the current action. When the policy has been fully evaluated this is the state's value.
+			byte current = this.curPolicy[s];
+			double pre_value = model.qValue(s, current, this.policyValues, discount);
+			for (int moves = states.legalMoves(s); moves != 0; moves &= moves - 1){
+				int cell = Integer.numberOfTrailingZeros(moves);
+				double Sum = model.qValue(s, cell, this.policyValues, discount);//calculate the q-value for this move by considering all possible outcomes
 
 				
-				if (Sum > pre_value){// if move yields a higher q-value update the policy and state value
+				if (Sum > pre_value){// if move yields a higher q-value update the policy
 					pre_value = Sum;
-					this.curPolicy.put(game,move);
+					this.curPolicy[s] = (byte) cell;
 				}
 			}
+			if (this.curPolicy[s] != current)
+				this.changes++;
 		}		
-		if (this.curPolicy.equals(copy_policy.policy) != true)//compare the updated policy with the backup to determine if improvement occurred
-			return true;
-		else{
-			return false;
-		}
+		//the policy improved if any state's action changed
+		return this.changes > 0;
+	}
+	
+	/**
+	 * 
+	 * @return the number of states whose action changed in the last policy improvement step
+	 */
+	public int getChanges()
+	{
+		return changes;
 	}
 	
 	/**
@@ -212,15 +369,25 @@ public class PolicyIterationAgent extends Agent {
 	{
 		/* YOUR CODE HERE */
 		this.initRandomPolicy();
+		Arrays.fill(this.policyValues, 0.0);
+		this.metrics = new SolverMetrics();
+		this.rounds = 0;
+		boolean improved;
 		do{
 			
 			this.evaluatePolicy(delta);
+			this.rounds++;
+			improved = this.improvePolicy();
 		}
-		while(this.improvePolicy());//improve the policy and repeat until the policy has no changes
+		//improve the policy and repeat until the policy has no changes. After partial evaluations, also wait for the values to converge
+		while(improved || (evaluationSweeps > 0 && metrics.getLastResidual() >= delta));
 		
 
 		
-		Policy new_policy = new Policy(curPolicy);
+		IndexedPolicy new_policy = new IndexedPolicy(states);
+		for (int s = 0; s < states.size(); s++)
+			new_policy.setMove(s, this.curPolicy[s]);// -1 (no move) in terminal states
+		
 		super.policy = new_policy;//update the agent policy with the optimized one
 		
 		
@@ -237,6 +404,7 @@ public class PolicyIterationAgent extends Agent {
 		
 		Game g=new Game(pi, h, h);
 		
+		g.setListener(new ConsoleGameListener());
 		g.playOut();
 		
 		
@@ -0,0 +1,214 @@
+package ticTacToe;
+
+
+/**
+ * A planning agent that solves the same MDP as {@link ValueIterationAgent} by prioritized sweeping (asynchronous value
+ * iteration). Rather than backing up every state in every sweep, it keeps a priority queue of states keyed by their
+ * Bellman error, always backs up the state with the largest error, and then only re-checks the states that can
+ * transition into it (its predecessors in the {@link TransitionTable}). Most states settle after one or two backups, so
+ * this does far fewer backups than full sweeps.
+ *
+ */
+public class PrioritizedSweepingAgent extends Agent {
+
+	/**
+	 * The states of the MDP: all valid games where it is X's turn, or that are terminal.
+	 */
+	StateIndex states;
+
+	/**
+	 * This array is used to store the values of states, indexed by their ordinal in {@link #states}
+	 */
+	double[] valueFunction;
+
+	/**
+	 * the discount factor
+	 */
+	double discount=0.9;
+
+	/**
+	 * the MDP model
+	 */
+	TTTMDP mdp;
+
+	/**
+	 * States are only queued for a backup if their Bellman error is more than this.
+	 */
+	double theta=1e-9;
+
+	/**
+	 * the most backups {@link #iterate} will do
+	 */
+	int maxBackups=1000000;
+
+	/**
+	 * Statistics of the last call to {@link #iterate}. Every {@code states.size()} backups are recorded as one sweep, with
+	 * the largest Bellman error backed up as its residual.
+	 */
+	SolverMetrics metrics=new SolverMetrics();
+
+
+	/**
+	 * This constructor trains the agent offline first and sets its policy
+	 */
+	public PrioritizedSweepingAgent()
+	{
+		this(0.9);
+	}
+
+	/**
+	 * Use this constructor to initialise your agent with an existing policy
+	 * @param p
+	 */
+	public PrioritizedSweepingAgent(Policy p) {
+		super(p);
+
+	}
+
+	public PrioritizedSweepingAgent(double discountFactor) {
+
+		this.discount=discountFactor;
+		mdp=new TTTMDP();
+		initValues();
+		train();
+	}
+
+	public PrioritizedSweepingAgent(double discountFactor, double winReward, double loseReward, double livingReward, double drawReward)
+	{
+		this.discount=discountFactor;
+		mdp=new TTTMDP(winReward, loseReward, livingReward, drawReward);
+		initValues();
+		train();
+	}
+
+	/**
+	 * Initialises the {@link #valueFunction} array, and sets the initial value of all states to 0.
+	 *
+	 */
+	public void initValues()
+	{
+		this.states=StateIndex.of('X', false);//all valid games where it is X's turn, or it's terminal.
+		this.valueFunction=new double[states.size()];
+	}
+
+	/**
+	 * Backs up states in order of decreasing Bellman error until no state's error is more than {@link #theta}. After
+	 * running this method, {@link #valueFunction} contains the values of each reachable state.
+	 */
+	public void iterate()
+	{
+		TransitionTable model=mdp.compile(states);
+		int[][] predecessors=model.predecessors();
+		int[] predStart=predecessors[0];
+		int[] pred=predecessors[1];
+
+		this.metrics=new SolverMetrics();
+		StatePriorityQueue queue=new StatePriorityQueue(states.size());
+
+		// queue every state whose value is off
+		for(int s=0;s<states.size();s++)
+		{
+			double error=Math.abs(model.maxQValue(s, valueFunction, discount)-valueFunction[s]);
+			if (error>theta)
+				queue.put(s, error);
+		}
+
+		int backups=0;
+		int chunkBackups=0;
+		double chunkResidual=0;
+		long chunkStart=System.nanoTime();
+		while(!queue.isEmpty() && backups<maxBackups)
+		{
+			chunkResidual=Math.max(chunkResidual, queue.peekPriority());
+			int s=queue.poll();
+			valueFunction[s]=model.maxQValue(s, valueFunction, discount);
+			backups++;
+			chunkBackups++;
+
+			// the value of s has changed, so its predecessors' errors may have too.
+			for(int i=predStart[s];i<predStart[s+1];i++)
+			{
+				int p=pred[i];
+				double error=Math.abs(model.maxQValue(p, valueFunction, discount)-valueFunction[p]);
+				if (error>theta)
+					queue.put(p, error);
+				else
+					queue.remove(p);
+			}
+
+			if (chunkBackups==states.size() || queue.isEmpty())
+			{
+				metrics.record(chunkResidual, System.nanoTime()-chunkStart, chunkBackups);
+				chunkBackups=0;
+				chunkResidual=0;
+				chunkStart=System.nanoTime();
+			}
+		}
+
+		if (chunkBackups>0)
+			metrics.record(chunkResidual, System.nanoTime()-chunkStart, chunkBackups);
+
+	}
+
+	/**
+	 * Extracts the greedy policy from {@link #valueFunction}. This method should be run AFTER {@link #iterate}.
+	 *
+	 * @return the policy mapping states to optimal actions.
+	 */
+	public Policy extractPolicy()
+	{
+		IndexedPolicy policy=new IndexedPolicy(states);
+		TransitionTable model=mdp.compile(states);
+		for(int s=0;s<states.size();s++)
+		{
+			if (states.isTerminal(s))
+				continue;
+
+			int best=model.bestMove(s, valueFunction, discount);
+			policy.setMove(s, best);
+		}
+
+		return policy;
+	}
+
+	/**
+	 * Solves the mdp using {@link #iterate} and sets the agent's policy using {@link #extractPolicy}.
+	 */
+	public void train()
+	{
+		this.iterate();
+
+		super.policy=extractPolicy();
+	}
+
+	/**
+	 *
+	 * @param g
+	 * @return the current value of game {@code g}
+	 */
+	public double getValue(Game g)
+	{
+		return valueFunction[states.ordinal(g)];
+	}
+
+	/**
+	 *
+	 * @return statistics of the backups done in the last training run
+	 */
+	public SolverMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+	public static void main(String a[]) throws IllegalMoveException
+	{
+		//Test method to play the agent against a human agent.
+		PrioritizedSweepingAgent agent=new PrioritizedSweepingAgent();
+		HumanAgent d=new HumanAgent();
+
+		Game g=new Game(agent, d, d);
+		g.setListener(new ConsoleGameListener());
+		g.playOut();
+
+	}
+}
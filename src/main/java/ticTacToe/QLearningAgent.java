@@ -1,8 +1,13 @@
 package ticTacToe;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * A Q-Learning agent with a Q-Table, i.e. a table of Q-Values. This table is implemented in the {@link QTable} class.
@@ -45,7 +50,7 @@ public class QLearningAgent extends Agent {
 	 * 
 	 */
 	
-	QTable qTable=new QTable();
+	QTable qTable;
 	
 	
 	/**
@@ -55,6 +60,48 @@ public class QLearningAgent extends Agent {
 	 */
 	TTTEnvironment env=new TTTEnvironment();
 	
+	/**
+	 * epsilon is multiplied by this after every move during training
+	 */
+	static final double EPSILON_DECAY=0.9999;
+	
+	/**
+	 * The number of threads that play training episodes at the same time, each in its own copy of {@link #env}, all 
+	 * updating the one shared {@link #qTable}.
+	 */
+	int actors=1;
+	
+	/**
+	 * the number of episodes played by the last call to {@link #train(int)}, and how long it took
+	 */
+	int trainedEpisodes=0;
+	long trainingNanos=0;
+	
+	/**
+	 * If true the q-table only holds one game of every class of symmetric games (see {@link StateIndex}), so what is 
+	 * learned in one game is also learned for all games symmetric to it.
+	 */
+	boolean symmetric=false;
+	
+	/**
+	 * The number of transitions each actor keeps for experience replay, 0 for no replay. With replay, every transition 
+	 * is stored in a {@link ReplayBuffer} after it has been learned from, and {@link #replayBatch} stored transitions are 
+	 * learned from again after every move, so each episode played yields several updates. Prioritized replays are 
+	 * scaled by their importance sampling weight (see {@link ReplayBuffer#getWeight(int)}), so they don't bias the 
+	 * q-values towards the transitions replayed most.
+	 */
+	int replayCapacity=0;
+	
+	/**
+	 * the number of stored transitions replayed after every move
+	 */
+	int replayBatch=4;
+	
+	/**
+	 * whether stored transitions are replayed in proportion to their last error rather than uniformly
+	 */
+	boolean prioritizedReplay=false;
+	
 	
 	/**
 	 * Construct a Q-Learning agent that learns from interactions with {@code opponent}.
@@ -79,21 +126,90 @@ public class QLearningAgent extends Agent {
 	
 	protected void initQTable()
 	{
-		List<Game> allGames=Game.generateAllValidGames('X');//all valid games where it is X's turn, or it's terminal.
-		for(Game g: allGames)
-		{
-			List<Move> moves=g.getPossibleMoves();
-			for(Move m: moves)
-			{
-				this.qTable.addQValue(g, m, 0.0);
-				//System.out.println("initing q value. Game:"+g);
-				//System.out.println("Move:"+m);
-			}
-			
-		}
+		this.qTable=new QTable(StateIndex.of('X', symmetric));//all valid games where it is X's turn, or it's terminal.
 		
 	}
 	
+	/**
+	 * Sets the number of actors that play training episodes in parallel, see {@link #actors}. Takes effect the next time 
+	 * the agent is trained.
+	 * 
+	 * @param actors at least 1
+	 */
+	public void setActors(int actors)
+	{
+		if (actors<1)
+			throw new IllegalArgumentException("there should be at least one actor");
+		this.actors=actors;
+	}
+	
+	/**
+	 * 
+	 * @return the training throughput of the last call to {@link #train(int)}, in episodes per second
+	 */
+	public double getEpisodesPerSecond()
+	{
+		return trainingNanos==0 ? 0 : trainedEpisodes*1e9/trainingNanos;
+	}
+	
+	public QTable getQTable()
+	{
+		return qTable;
+	}
+	
+	/**
+	 * Saves a snapshot of the q-table, see {@link QTable#save(String)}.
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void saveQTable(String file) throws IOException
+	{
+		qTable.save(file);
+	}
+	
+	/**
+	 * Replaces the q-table with a snapshot saved by {@link #saveQTable(String)} and extracts its policy. Use 
+	 * {@link #train(int)} to carry on learning from it.
+	 * 
+	 * @param file
+	 * @throws IOException if the file can't be read or isn't a valid q-table snapshot
+	 */
+	public void loadQTable(String file) throws IOException
+	{
+		this.qTable=QTable.load(file);
+		this.symmetric=qTable.states.isSymmetric();
+		this.policy=extractPolicy();
+	}
+	
+	/**
+	 * Turns symmetry reduction on or off, see {@link #symmetric}. This resets the q-table, so takes effect the next time 
+	 * the agent is trained.
+	 * 
+	 * @param symmetric
+	 */
+	public void setSymmetryReduction(boolean symmetric)
+	{
+		this.symmetric=symmetric;
+		initQTable();
+	}
+	
+	/**
+	 * Turns experience replay on, see {@link #replayCapacity}. Takes effect the next time the agent is trained.
+	 * 
+	 * @param capacity    the number of transitions each actor keeps, 0 to turn replay off
+	 * @param batchSize   the number of stored transitions replayed after every move
+	 * @param prioritized whether to replay transitions in proportion to their last error rather than uniformly
+	 */
+	public void setReplay(int capacity, int batchSize, boolean prioritized)
+	{
+		if (capacity<0 || batchSize<1)
+			throw new IllegalArgumentException("capacity should be at least 0 and batchSize at least 1");
+		this.replayCapacity=capacity;
+		this.replayBatch=batchSize;
+		this.prioritizedReplay=prioritized;
+	}
+	
 	/**
 	 * Uses default parameters for the opponent (a RandomAgent) and the learning rate (0.2). Use other constructor to set these manually.
 	 */
@@ -113,38 +229,97 @@ public class QLearningAgent extends Agent {
 	 *  done for you on the last line of the method.
 	 */
 	public void train() {
+	    train(this.numEpisodes);
+	}
+	
+	/**
+	 * Plays {@code episodes} more episodes, carrying on from the current q-values, and then extracts the policy. After 
+	 * {@link #loadQTable(String)} this tops up a saved q-table rather than learning from scratch.
+	 * 
+	 * @param episodes the number of episodes (games) to train for
+	 */
+	public void train(int episodes) {
 	    /* 
 	     * YOUR CODE HERE
 	     */
+	    long start = System.nanoTime();
+	    if (actors == 1)
+	        this.epsilon = runEpisodes(env, episodes, epsilon, EPSILON_DECAY);
+	    else {
+	        // every actor decays its epsilon as fast as all of them together, so the schedule is the same as when serial
+	        final double decay = Math.pow(EPSILON_DECAY, actors);
+	        final double startEpsilon = this.epsilon;
+	        List<Callable<Double>> workers = new ArrayList<Callable<Double>>();
+	        for (int i = 0; i < actors; i++) {
+	            final TTTEnvironment actorEnv = (i == 0) ? env : env.copy(); // each actor plays its own games
+	            final int n = episodes / actors + ((i < episodes % actors) ? 1 : 0);
+	            workers.add(new Callable<Double>() {
+	                public Double call() {
+	                    return runEpisodes(actorEnv, n, startEpsilon, decay);
+	                }
+	            });
+	        }
+	        
+	        ForkJoinPool pool = new ForkJoinPool(actors);
+	        try {
+	            for (Future<Double> f : pool.invokeAll(workers))
+	                this.epsilon = f.get();
+	        } catch (InterruptedException e) {
+	            Thread.currentThread().interrupt();
+	            throw new IllegalStateException("Interrupted while training", e);
+	        } catch (ExecutionException e) {
+	            throw new IllegalStateException("A training actor failed", e.getCause());
+	        } finally {
+	            pool.shutdown();
+	        }
+	    }
+	    this.trainedEpisodes = episodes;
+	    this.trainingNanos = System.nanoTime() - start;
+
+	    this.policy = extractPolicy();
 	    
-	    for (int u = 0; u < this.numEpisodes; u++) { // loop number of episodes  
-	        env = new TTTEnvironment();  
+	    if (this.policy == null) {
+	        System.out.println("Unimplemented methods! First implement the train() & extractPolicy methods");
+	    }
+	}
+	
+	/**
+	 * Plays {@code episodes} episodes in {@code env}, updating the shared {@link #qTable}. Several actors can run this at 
+	 * the same time, each in its own environment.
+	 * 
+	 * @param env      the environment to play in, reset at the start of every episode
+	 * @param episodes
+	 * @param epsilon  the exploration rate to start with
+	 * @param decay    epsilon is multiplied by this after every move
+	 * @return the exploration rate at the end
+	 */
+	private double runEpisodes(TTTEnvironment env, int episodes, double epsilon, double decay) {
+	    ThreadLocalRandom rand = ThreadLocalRandom.current();
+	    StateIndex states = qTable.states;
+	    ReplayBuffer replay = replayCapacity > 0 ? new ReplayBuffer(replayCapacity, prioritizedReplay) : null;
+	    for (int u = 0; u < episodes; u++) { // loop number of episodes  
+	        env.reset();  
 	        Game current_state = env.getCurrentGameState(); 
 	        Move current_action = null;  
 
 	        while (!current_state.isTerminal()) { //terminal state    
-	            Game current_stateCopy = new Game(current_state); //copy of the current state   
-	            Random rand = new Random();
+	            int current_s = states.ordinal(current_state); //ordinal of the current state in the q-table   
        
 	            if (rand.nextDouble() < epsilon) { 
 	                // Explore   
-	                List<Move> moves = current_stateCopy.getPossibleMoves();   
-	                current_action = moves.get(rand.nextInt(moves.size())); //random valid move  
+	                int moves = current_state.getLegalMoves();   
+	                int cell = BitBoard.nthCell(moves, rand.nextInt(Integer.bitCount(moves))); //random valid move  
+	                current_action = Move.of('X', cell);
 	            } else { 
 	                // Exploit
-	                List<Move> moves = current_stateCopy.getPossibleMoves();   
-	                Double maxActionValue = Double.NEGATIVE_INFINITY; //max value for comparison    
-	                for (Move m : moves) {  
-	                    if (qTable.getQValue(current_stateCopy, m) > maxActionValue) { 
-	                        current_action = m; // update the best action
-	                        maxActionValue = qTable.getQValue(current_stateCopy, m); // update the maximum q-value		
-	                    } else {
-	                        continue; // skip if q-value is worse
-	                    }
-	                }
+	                int best = qTable.bestMove(current_s); // legal move with the highest q-value  
+	                best = states.gameCell(current_state, best); // the same move in the current game, if the table is symmetric
+	                current_action = Move.of('X', best);
 	            } 
+	            // the q-table's cell for the action, in case the current game is only symmetric to the one in the table
+	            int current_cell = states.indexedCell(current_state, current_action.cell());
 
-	            epsilon = epsilon * 0.9999; //decrease epsilon to shift from exploration to exploitation	 	
+	            epsilon = epsilon * decay; //decrease epsilon to shift from exploration to exploitation	 	
   
 	            Outcome outcome = null; 
 	            try { 
@@ -154,42 +329,45 @@ public class QLearningAgent extends Agent {
 	            }
  
 	            current_state = env.getCurrentGameState(); // update the current state after move   
-	            Double nextQVal;		 
-	               
-	            if (current_state.isTerminal() == false) { // if the next state is not  terminal find the maximum q-value of possible moves 
-	                Move nextAction = null;			
-	                List<Move> nextActions = current_state.getPossibleMoves();		
-	                Double nextMaxActionValue = Double.NEGATIVE_INFINITY;
-	                for (Move n : nextActions) {
-	                    if (qTable.getQValue(current_state, n) > nextMaxActionValue) {			
-	                        nextAction = n; // update the best next action		
-	                        nextMaxActionValue = qTable.getQValue(current_state, n); //   update the max q-value
-	                    }  
-	                } 
-	                nextQVal = qTable.getQValue(current_state, nextAction); // use the best q-value for the next state
-	            } else { 
-	                nextQVal = 0.00; // if the next state is terminal its q-value is 0
-	            } 
-
-	            Double currentQVal = qTable.getQValue(current_stateCopy, current_action) 
-	                    + alpha * (outcome.localReward + (discount * nextQVal) 
-	                    - qTable.getQValue(current_stateCopy, current_action));// updating the q-value using the q-learning update rule 
+	            int next_s = states.ordinal(current_state);
 	            
-	            qTable.addQValue(current_stateCopy, current_action, currentQVal); // store the updated q-value in the q-table
-	            if (current_state.isTerminal()) {     
-	                break; // end the episode if the game is over   
-	                   
-	            }   
+	            // the maximum q-value of possible moves in the next state, 0 if it is terminal
+	            double nextQVal = qTable.maxQValue(next_s);
+
+	            // the q-learning update rule, applied atomically as other actors may be updating the same q-value
+	            qTable.update(current_s, current_cell, outcome.localReward + discount * nextQVal, alpha);
 	            
+	            if (replay != null) {
+	                replay.add(current_s, current_cell, outcome.localReward, next_s, current_state.isTerminal());
+	                replay(replay, rand);
+	            }
 	        }   
 	        
 	        
 	    }  
+	    return epsilon;
+	}
 
-	    this.policy = extractPolicy();
-	    
-	    if (this.policy == null) {
-	        System.out.println("Unimplemented methods! First implement the train() & extractPolicy methods");
+	/**
+	 * Learns again from {@link #replayBatch} transitions sampled from {@code replay}, and updates their priorities. The 
+	 * learning rate of each update is scaled by the transition's importance sampling weight.
+	 * 
+	 * @param replay
+	 * @param rand
+	 */
+	private void replay(ReplayBuffer replay, ThreadLocalRandom rand) {
+	    for (int i = 0; i < replayBatch; i++) {
+	        int slot = replay.sample(rand);
+	        int s = replay.getState(slot);
+	        int cell = replay.getAction(slot);
+	        double target = replay.getReward(slot);
+	        if (!replay.isTerminal(slot))
+	            target += discount * qTable.maxQValue(replay.getNextState(slot));
+	        
+	        // weighted by the priority it was sampled with
+	        double weight = replay.getWeight(slot);
+	        replay.setError(slot, target - qTable.getQValue(s, cell));
+	        qTable.update(s, cell, target, alpha * weight);
 	    }
 	}
 
@@ -202,39 +380,24 @@ public class QLearningAgent extends Agent {
 		/* 
 	     * YOUR CODE HERE
 	     */
-	    HashMap<Game, Move> policyMap = new HashMap<>();
-	    List<Game> states = Game.generateAllValidGames('X');
+	    StateIndex states = qTable.states;
+	    IndexedPolicy policy = new IndexedPolicy(states);
 	    
 	    
-	    for (Game state : states) {
-	        if (state.isTerminal()) {
+	    for (int s = 0; s < states.size(); s++) {
+	        if (states.isTerminal(s)) {
 	        	
 	            continue; // skip terminal states, as no moves are possible
 	        }
 
 	        
-	        Move currentMaxMove = null; 
-	        Double currentMaxMoveValue = Double.NEGATIVE_INFINITY; // initialize max value for comparison
-	        HashMap<Move, Double> actions = qTable.get(state); // get all actions and their q-values for the current state
-
-	        for (Move action : actions.keySet()) {
-	        	
-	            if (qTable.getQValue(state, action) > currentMaxMoveValue) {
-	            	
-	            	
-	                currentMaxMoveValue = qTable.getQValue(state, action); // update the best Q-value
-	                currentMaxMove = action; // update the best move
-	                
-	            }
-	            
-	        }
+	        int best = qTable.bestMove(s); // the move with the highest q-value in the current state
 	        
-	        policyMap.put(state, currentMaxMove); // map the best move to the current state
+	        policy.setMove(s, best); // map the best move to the current state
 	        
 	        
 	    }
 	    
-	    Policy policy = new Policy(policyMap); // create a policy object from the policy map
 	    return policy; // return the extracted policy
 	}
 	
@@ -247,6 +410,7 @@ public class QLearningAgent extends Agent {
 		HumanAgent d=new HumanAgent();
 		
 		Game g=new Game(agent, d, d);
+		g.setListener(new ConsoleGameListener());
 		g.playOut();
 	}
 }
@@ -1,59 +1,196 @@
 package ticTacToe;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
 /**
- * This class a simple implementation of a Q-Table. It's a subclass of {@link java.util.HashMap}, so all the methods from 
- * that class are available. Two methods for adding and retrieving q-values to/from the table are provided.
- * 
+ * This class a simple implementation of a Q-Table. Q-values are kept in a single primitive array with 9 slots (one per
+ * cell) for every state of a {@link StateIndex}, so the q-value of (state, move) is at {@code 9*ordinal+3*x+y}. Two
+ * methods for adding and retrieving q-values to/from the table by {@link Game} and {@link Move} are provided, as well as
+ * primitive versions that work on ordinals and cells directly. If the {@link StateIndex} is symmetric, the methods taking
+ * a {@link Game} also work for games that are only symmetric to an indexed one, and the primitive ones use the cells of
+ * the indexed game.
+ *
+ * The table is safe to share between threads: each q-value is stored as the bits of a double in an
+ * {@link AtomicLongArray}, and {@link #update(int, int, double, double)} applies a learning step with compare-and-set
+ * rather than a lock, so concurrent updates to the same q-value are never lost.
+ *
  * @author ae187
  *
  */
-public class QTable extends HashMap<Game, HashMap<Move,Double>> {
+public class QTable {
+
+	/**
+	 * the states this table has q-values for
+	 */
+	final StateIndex states;
+
+	/**
+	 * the q-values, as {@link Double#doubleToRawLongBits} bits
+	 */
+	final AtomicLongArray values;
 
-	
-	public QTable()
-	{
-		super();
+	/**
+	 * A table with all q-values set to 0.
+	 *
+	 * @param states
+	 */
+	public QTable(StateIndex states) {
+		this.states = states;
+		this.values = new AtomicLongArray(9 * states.size()); // all 0L, which is 0.0
 	}
-	
+
 	/**
+	 * Loads a q-table saved by {@link #save(String)}.
 	 * 
+	 * @param file
+	 * @return the q-table
+	 * @throws IOException if the file can't be read or isn't a valid q-table snapshot
+	 */
+	public static QTable load(String file) throws IOException {
+		TableFile table = TableFile.map(file, TableFile.Q_VALUES, 72);
+		return new QTable(table.states, table.toDoubles());
+	}
+
+	private QTable(StateIndex states, double[] values) {
+		this(states);
+		for (int i = 0; i < values.length; i++)
+			this.values.set(i, Double.doubleToRawLongBits(values[i]));
+	}
+
+	/**
+	 *
+	 * @return a copy of all q-values, the q-value of playing {@code cell} in state {@code s} at {@code 9*s+cell}
 	 */
-	private static final long serialVersionUID = 1L;
-	
+	public double[] toArray() {
+		double[] copy = new double[values.length()];
+		for (int i = 0; i < copy.length; i++)
+			copy[i] = get(i);
+		return copy;
+	}
+
+	private double get(int i) {
+		return Double.longBitsToDouble(values.get(i));
+	}
+
 	/**
+	 * Saves a snapshot of all q-values, in the format described in {@link TableFile}.
 	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void save(String file) throws IOException {
+		TableFile.write(file, TableFile.Q_VALUES, states, toArray());
+	}
+
+	public StateIndex getStates() {
+		return states;
+	}
+
+	/**
+	 *
 	 * @param g
 	 * @param m
-	 * @return the q value associated with the q-state {@code (g,m)}, where game is a {@link Game} object 
-	 * and m is a {@link Move} object}
-	 */
-	public Double getQValue(Game g, Move m)
-	{
-		if (containsKey(g))
-		{
-			HashMap<Move,Double> moves=get(g);
-			if (moves.containsKey(m))
-				return moves.get(m);
-		}
-		
-		return null;
+	 * @return the q value associated with the q-state {@code (g,m)}, where game is a {@link Game} object and m is a
+	 *         {@link Move} object}. Null if {@code g} isn't in this table or {@code m} isn't a legal move in {@code g}.
+	 */
+	public Double getQValue(Game g, Move m) {
+		int s = states.ordinal(g);
+		if (s < 0)
+			return null;
+
+		int cell = states.indexedCell(g, m.cell());
+		if ((states.legalMoves(s) & (1 << cell)) == 0)
+			return null;
+
+		return get(9 * s + cell);
 	}
-	
+
 	/**
 	 * Adds the q-value mapping (g,m)->v to the q-table represented by this map.
+	 *
 	 * @param g
 	 * @param m
 	 * @param v
 	 */
-	public void addQValue(Game g, Move m, Double v)
-	{
-		if (!containsKey(g))
-			this.put(g, new HashMap<Move,Double>());
-		
-		this.get(g).put(m, v);
+	public void addQValue(Game g, Move m, Double v) {
+		int s = states.ordinal(g);
+		if (s < 0)
+			throw new IllegalArgumentException("Game not in q-table:" + g);
+
+		values.set(9 * s + states.indexedCell(g, m.cell()), Double.doubleToRawLongBits(v));
+	}
+
+	/**
+	 *
+	 * @param s    a state ordinal
+	 * @param cell
+	 * @return the q-value of playing in {@code cell} in state {@code s}
+	 */
+	public double getQValue(int s, int cell) {
+		return get(9 * s + cell);
+	}
+
+	public void setQValue(int s, int cell, double v) {
+		values.set(9 * s + cell, Double.doubleToRawLongBits(v));
+	}
+
+	/**
+	 * Moves the q-value of playing {@code cell} in state {@code s} a step of size {@code alpha} towards {@code target}:
+	 * {@code Q <- Q + alpha*(target-Q)}. Atomic, so threads can update the table concurrently.
+	 *
+	 * @param s      a state ordinal
+	 * @param cell
+	 * @param target the new estimate, e.g. reward plus discounted value of the next state
+	 * @param alpha  the learning rate
+	 */
+	public void update(int s, int cell, double target, double alpha) {
+		int i = 9 * s + cell;
+		while (true) {
+			long bits = values.get(i);
+			double q = Double.longBitsToDouble(bits);
+			if (values.compareAndSet(i, bits, Double.doubleToRawLongBits(q + alpha * (target - q))))
+				return;
+		}
+	}
+
+	/**
+	 *
+	 * @param s a state ordinal
+	 * @return the highest q-value over the legal moves in state {@code s}, 0 if {@code s} is terminal.
+	 */
+	public double maxQValue(int s) {
+		int moves = states.legalMoves(s);
+		if (moves == 0)
+			return 0.0;
+
+		double max = Double.NEGATIVE_INFINITY;
+		for (; moves != 0; moves &= moves - 1) {
+			double q = get(9 * s + Integer.numberOfTrailingZeros(moves));
+			if (q > max)
+				max = q;
+		}
+		return max;
+	}
+
+	/**
+	 *
+	 * @param s a state ordinal
+	 * @return the legal move in state {@code s} with the highest q-value (the first one if there are ties), -1 if
+	 *         {@code s} is terminal.
+	 */
+	public int bestMove(int s) {
+		int best = -1;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int moves = states.legalMoves(s); moves != 0; moves &= moves - 1) {
+			int cell = Integer.numberOfTrailingZeros(moves);
+			double q = get(9 * s + cell);
+			if (q > max) {
+				max = q;
+				best = cell;
+			}
+		}
+		return best;
 	}
-	
-	
 
 }
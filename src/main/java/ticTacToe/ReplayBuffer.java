@@ -0,0 +1,234 @@
+package ticTacToe;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A fixed size experience replay buffer of q-learning transitions {@code (s, a, r, s')}, kept in preallocated primitive
+ * arrays indexed by slot. States are ordinals of a {@link StateIndex} and actions are cells. Once the buffer is full,
+ * each new transition overwrites the oldest one.
+ *
+ * Transitions can be sampled uniformly, or, for a prioritized buffer, in proportion to their priority: the size of
+ * their last temporal difference error raised to {@link #PRIORITY_EXPONENT}. Priorities are kept in a sum tree, so
+ * sampling and updating a priority are both O(log capacity). New transitions get the highest priority seen so far, so
+ * that every transition is replayed at least once with high probability.
+ *
+ * Prioritized sampling replays some transitions more often than they happened, which biases what is learned from
+ * them. {@link #getWeight(int)} gives the importance sampling weight that corrects for this, to scale each update by.
+ *
+ */
+public class ReplayBuffer {
+
+	/**
+	 * How strongly sampling is skewed towards large errors: 0 is uniform, 1 is fully proportional.
+	 */
+	static final double PRIORITY_EXPONENT = 0.6;
+
+	/**
+	 * added to every error so that no transition has a priority of 0
+	 */
+	static final double MIN_ERROR = 1e-3;
+
+	/**
+	 * How much of the sampling bias {@link #getWeight(int)} corrects: 0 is none, 1 is all of it.
+	 */
+	static final double IMPORTANCE_EXPONENT = 1.0;
+
+	private final int[] states;
+
+	private final byte[] actions;
+
+	private final double[] rewards;
+
+	private final int[] nextStates;
+
+	private final boolean[] terminal;
+
+	/**
+	 * For prioritized buffers, a binary sum tree over the slot priorities: the priority of slot {@code i} is at
+	 * {@code tree[leaves+i]} and every other node holds the sum of its two children, so {@code tree[1]} is the total.
+	 * Null for uniform buffers.
+	 */
+	private final double[] tree;
+
+	/**
+	 * the same tree with the smallest priority below each node instead of the sum, and infinity for empty slots
+	 */
+	private final double[] minTree;
+
+	private final int leaves;
+
+	/**
+	 * the slot the next transition goes in
+	 */
+	private int next = 0;
+
+	private int size = 0;
+
+	private double maxPriority = 1.0;
+
+	/**
+	 *
+	 * @param capacity    the number of transitions kept
+	 * @param prioritized whether to sample in proportion to priorities rather than uniformly
+	 */
+	public ReplayBuffer(int capacity, boolean prioritized) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity should be at least 1");
+
+		states = new int[capacity];
+		actions = new byte[capacity];
+		rewards = new double[capacity];
+		nextStates = new int[capacity];
+		terminal = new boolean[capacity];
+
+		int leaves = 1;
+		while (leaves < capacity)
+			leaves <<= 1;
+		this.leaves = leaves;
+		this.tree = prioritized ? new double[2 * leaves] : null;
+		this.minTree = prioritized ? new double[2 * leaves] : null;
+		if (prioritized)
+			Arrays.fill(minTree, Double.POSITIVE_INFINITY);
+	}
+
+	public int capacity() {
+		return states.length;
+	}
+
+	/**
+	 *
+	 * @return the number of transitions in the buffer
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isPrioritized() {
+		return tree != null;
+	}
+
+	/**
+	 * Adds a transition, overwriting the oldest one if the buffer is full.
+	 *
+	 * @param s        the state ordinal
+	 * @param cell     the action
+	 * @param reward   the reward received
+	 * @param next     the ordinal of the state transitioned into
+	 * @param terminal whether {@code next} is terminal
+	 */
+	public void add(int s, int cell, double reward, int next, boolean terminal) {
+		int i = this.next;
+		states[i] = s;
+		actions[i] = (byte) cell;
+		rewards[i] = reward;
+		nextStates[i] = next;
+		this.terminal[i] = terminal;
+		if (tree != null)
+			setLeaf(i, maxPriority);
+
+		this.next = (i + 1) % states.length;
+		if (size < states.length)
+			size++;
+	}
+
+	/**
+	 * Picks a transition at random: uniformly, or in proportion to the priorities if the buffer is prioritized.
+	 *
+	 * @param r
+	 * @return the slot of the transition picked
+	 */
+	public int sample(Random r) {
+		if (size == 0)
+			throw new IllegalStateException("The replay buffer is empty");
+		if (tree == null)
+			return r.nextInt(size);
+
+		// walk down from the root to the leaf whose range of cumulative priority holds u
+		double u = r.nextDouble() * tree[1];
+		int node = 1;
+		while (node < leaves) {
+			int left = 2 * node;
+			if (u < tree[left])
+				node = left;
+			else {
+				u -= tree[left];
+				node = left + 1;
+			}
+		}
+		// rounding in u -= tree[left] can push u past the last transition into the empty slots after it
+		return Math.min(node - leaves, size - 1);
+	}
+
+	/**
+	 * Sets the priority of a transition from its latest temporal difference error. Does nothing for uniform buffers.
+	 *
+	 * @param slot
+	 * @param error the difference between the target and the q-value it was compared with
+	 */
+	public void setError(int slot, double error) {
+		if (tree == null)
+			return;
+
+		double priority = Math.pow(Math.abs(error) + MIN_ERROR, PRIORITY_EXPONENT);
+		maxPriority = Math.max(maxPriority, priority);
+		setLeaf(slot, priority);
+	}
+
+	/**
+	 *
+	 * @param slot
+	 * @return the priority of the transition in {@code slot}, 0 for uniform buffers
+	 */
+	public double getPriority(int slot) {
+		return tree == null ? 0 : tree[leaves + slot];
+	}
+
+	/**
+	 *
+	 * @param slot
+	 * @return the importance sampling weight of the transition in {@code slot}: how much less than the transition with
+	 *         the lowest priority it should count for, to make up for being sampled more often. 1 for uniform buffers.
+	 */
+	public double getWeight(int slot) {
+		if (tree == null)
+			return 1.0;
+		// (size * P(slot))^-IMPORTANCE_EXPONENT, scaled so that the largest weight is 1
+		return Math.pow(minTree[1] / tree[leaves + slot], IMPORTANCE_EXPONENT);
+	}
+
+	/**
+	 * Sets a leaf, and recomputes the sums and minimums above it from their children, so that rounding errors don't
+	 * build up over many updates.
+	 */
+	private void setLeaf(int slot, double priority) {
+		int node = leaves + slot;
+		tree[node] = priority;
+		minTree[node] = priority;
+		for (node >>>= 1; node >= 1; node >>>= 1) {
+			tree[node] = tree[2 * node] + tree[2 * node + 1];
+			minTree[node] = Math.min(minTree[2 * node], minTree[2 * node + 1]);
+		}
+	}
+
+	public int getState(int slot) {
+		return states[slot];
+	}
+
+	public int getAction(int slot) {
+		return actions[slot];
+	}
+
+	public double getReward(int slot) {
+		return rewards[slot];
+	}
+
+	public int getNextState(int slot) {
+		return nextStates[slot];
+	}
+
+	public boolean isTerminal(int slot) {
+		return terminal[slot];
+	}
+
+}
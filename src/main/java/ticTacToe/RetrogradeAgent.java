@@ -0,0 +1,199 @@
+package ticTacToe;
+
+import java.util.concurrent.ForkJoinPool;
+
+
+/**
+ * A planning agent that solves the same MDP as {@link ValueIterationAgent} exactly, in a single backward pass
+ * (retrograde analysis / backward induction). Every move adds a piece to the board, so the states form a DAG layered by
+ * the number of pieces on the board. Processing the layers from the full board back to the empty one, every successor of
+ * a state already has its final value when the state is backed up, so each state is backed up exactly once. The states
+ * within a layer don't depend on each other, and are backed up in parallel.
+ *
+ */
+public class RetrogradeAgent extends Agent {
+
+	/**
+	 * The states of the MDP: all valid games where it is X's turn, or that are terminal.
+	 */
+	StateIndex states;
+
+	/**
+	 * This array is used to store the values of states, indexed by their ordinal in {@link #states}
+	 */
+	double[] valueFunction;
+
+	/**
+	 * the discount factor
+	 */
+	double discount=0.9;
+
+	/**
+	 * the MDP model
+	 */
+	TTTMDP mdp;
+
+	/**
+	 * the number of threads each layer is split over
+	 */
+	int parallelism=Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * Statistics of the last call to {@link #iterate}, with one sweep recorded per layer.
+	 */
+	SolverMetrics metrics=new SolverMetrics();
+
+
+	/**
+	 * This constructor trains the agent offline first and sets its policy
+	 */
+	public RetrogradeAgent()
+	{
+		this(0.9);
+	}
+
+	/**
+	 * Use this constructor to initialise your agent with an existing policy
+	 * @param p
+	 */
+	public RetrogradeAgent(Policy p) {
+		super(p);
+
+	}
+
+	public RetrogradeAgent(double discountFactor) {
+
+		this.discount=discountFactor;
+		mdp=new TTTMDP();
+		initValues();
+		train();
+	}
+
+	public RetrogradeAgent(double discountFactor, double winReward, double loseReward, double livingReward, double drawReward)
+	{
+		this.discount=discountFactor;
+		mdp=new TTTMDP(winReward, loseReward, livingReward, drawReward);
+		initValues();
+		train();
+	}
+
+	/**
+	 * Initialises the {@link #valueFunction} array.
+	 *
+	 */
+	public void initValues()
+	{
+		this.states=StateIndex.of('X', false);//all valid games where it is X's turn, or it's terminal.
+		this.valueFunction=new double[states.size()];
+	}
+
+	/**
+	 * Computes the value of every state, one layer at a time from the fullest boards to the empty board.
+	 */
+	public void iterate()
+	{
+		final TransitionTable model=mdp.compile(states);
+		this.metrics=new SolverMetrics();
+
+		ForkJoinPool pool=new ForkJoinPool(parallelism);
+		try {
+			for(int pieces=9;pieces>=0;pieces--)
+			{
+				int from=states.piecesStart(pieces);
+				int to=states.piecesStart(pieces+1);
+				long start=System.nanoTime();
+				double residual=ParallelSweep.run(pool, from, to, new ParallelSweep.Kernel() {
+					public double run(int from, int to) {
+						double residual=0;
+						for(int i=from;i<to;i++)
+						{
+							int s=states.byPieces(i);
+							double value=model.maxQValue(s, valueFunction, discount);
+							residual=Math.max(residual, Math.abs(value-valueFunction[s]));
+							valueFunction[s]=value;
+						}
+						return residual;
+					}
+				});
+				metrics.record(residual, System.nanoTime()-start, to-from);
+			}
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Extracts the greedy policy from {@link #valueFunction}. This method should be run AFTER {@link #iterate}.
+	 *
+	 * @return the policy mapping states to optimal actions.
+	 */
+	public Policy extractPolicy()
+	{
+		IndexedPolicy policy=new IndexedPolicy(states);
+		TransitionTable model=mdp.compile(states);
+		for(int s=0;s<states.size();s++)
+		{
+			if (states.isTerminal(s))
+				continue;
+
+			int best=model.bestMove(s, valueFunction, discount);
+			policy.setMove(s, best);
+		}
+
+		return policy;
+	}
+
+	/**
+	 * Solves the mdp using {@link #iterate} and sets the agent's policy using {@link #extractPolicy}.
+	 */
+	public void train()
+	{
+		this.iterate();
+
+		super.policy=extractPolicy();
+	}
+
+	/**
+	 * Sets the number of threads used by {@link #iterate}. Takes effect the next time the agent is trained.
+	 *
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism)
+	{
+		if (parallelism<1)
+			throw new IllegalArgumentException("parallelism should be at least 1");
+		this.parallelism=parallelism;
+	}
+
+	/**
+	 *
+	 * @param g
+	 * @return the value of game {@code g}
+	 */
+	public double getValue(Game g)
+	{
+		return valueFunction[states.ordinal(g)];
+	}
+
+	/**
+	 *
+	 * @return statistics of the last training run, one sweep per layer
+	 */
+	public SolverMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+	public static void main(String a[]) throws IllegalMoveException
+	{
+		//Test method to play the agent against a human agent.
+		RetrogradeAgent agent=new RetrogradeAgent();
+		HumanAgent d=new HumanAgent();
+
+		Game g=new Game(agent, d, d);
+		g.setListener(new ConsoleGameListener());
+		g.playOut();
+
+	}
+}
@@ -0,0 +1,92 @@
+package ticTacToe;
+
+import java.util.Arrays;
+
+/**
+ * Per-sweep statistics recorded by the planning agents while they train: the residual (largest change to any state's
+ * value), the time taken and the number of states backed up in each sweep.
+ *
+ */
+public class SolverMetrics {
+
+	private double[] residuals = new double[16];
+	private long[] nanos = new long[16];
+	private int[] updates = new int[16];
+	private int sweeps = 0;
+
+	/**
+	 * Records one sweep.
+	 *
+	 * @param residual the largest change to any state's value during the sweep
+	 * @param nanos    the time the sweep took
+	 * @param updates  the number of states that were backed up
+	 */
+	public void record(double residual, long nanos, int updates) {
+		if (sweeps == residuals.length) {
+			residuals = Arrays.copyOf(residuals, 2 * sweeps);
+			this.nanos = Arrays.copyOf(this.nanos, 2 * sweeps);
+			this.updates = Arrays.copyOf(this.updates, 2 * sweeps);
+		}
+		residuals[sweeps] = residual;
+		this.nanos[sweeps] = nanos;
+		this.updates[sweeps] = updates;
+		sweeps++;
+	}
+
+	/**
+	 *
+	 * @return the number of sweeps recorded
+	 */
+	public int getSweeps() {
+		return sweeps;
+	}
+
+	public double getResidual(int sweep) {
+		return residuals[check(sweep)];
+	}
+
+	public long getSweepNanos(int sweep) {
+		return nanos[check(sweep)];
+	}
+
+	public int getStatesUpdated(int sweep) {
+		return updates[check(sweep)];
+	}
+
+	/**
+	 *
+	 * @return the residual of the last sweep, or positive infinity if nothing has been recorded
+	 */
+	public double getLastResidual() {
+		return sweeps == 0 ? Double.POSITIVE_INFINITY : residuals[sweeps - 1];
+	}
+
+	public long getTotalNanos() {
+		long total = 0;
+		for (int i = 0; i < sweeps; i++)
+			total += nanos[i];
+		return total;
+	}
+
+	public long getTotalStatesUpdated() {
+		long total = 0;
+		for (int i = 0; i < sweeps; i++)
+			total += updates[i];
+		return total;
+	}
+
+	private int check(int sweep) {
+		if (sweep < 0 || sweep >= sweeps)
+			throw new IndexOutOfBoundsException("No sweep " + sweep + ", " + sweeps + " recorded");
+		return sweep;
+	}
+
+	public String toString() {
+		String result = "";
+		for (int i = 0; i < sweeps; i++)
+			result += "sweep " + i + ": residual=" + residuals[i] + " states=" + updates[i] + " time="
+					+ (nanos[i] / 1000) + "us\n";
+		return result;
+	}
+
+}
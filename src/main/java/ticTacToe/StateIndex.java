@@ -0,0 +1,316 @@
+package ticTacToe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maps a set of valid game states to dense ordinals {@code 0..size()-1}, so that values, q-values and policies can
+ * be stored in primitive arrays rather than in maps keyed by {@link Game}. Ordinals follow the order of the list the
+ * index was built from, which for {@link Game#generateAllValidGames(char)} is ascending {@link Game#hashCode} order.
+ *
+ * Looking up the ordinal of a game is a single array access on its hash.
+ *
+ * An index is immutable once built, so the indexes of all valid games are built once per process and shared by every
+ * agent, see {@link #of(char, boolean)}.
+ *
+ * A symmetric index only holds the canonical representative of every class of games that are the same up to rotations
+ * and reflections (see {@link Symmetry}), which is about an eighth of the games. Every other game in the class has the
+ * ordinal of its representative, and moves are mapped between the two with {@link #indexedCell} and
+ * {@link #gameCell}. Those are the identity for an index that isn't symmetric, so code using them works with both.
+ *
+ */
+public class StateIndex {
+
+	/**
+	 * the number of possible game hashes, see {@link Game#hashCode}
+	 */
+	static final int HASHES = 59049;
+
+	/**
+	 * ordinal of each hash, -1 if that game is not in this index
+	 */
+	private final int[] ordinals = new int[HASHES];
+
+	private final int[] hashes;
+
+	private final Game[] games;
+
+	/**
+	 * the moves available in each state as a mask of cells (see {@link BitBoard}), 0 in terminal states.
+	 */
+	private final short[] moves;
+
+	/**
+	 * all ordinals, sorted by the number of pieces on the board
+	 */
+	private final int[] byPieces;
+
+	/**
+	 * the states with {@code n} pieces are at positions {@code piecesStart[n]} to {@code piecesStart[n+1]} of
+	 * {@link #byPieces}
+	 */
+	private final int[] piecesStart = new int[11];
+
+	/**
+	 * the symmetry turning the game with each hash into its indexed representative, null if the index isn't symmetric
+	 */
+	private final byte[] symmetries;
+
+	/**
+	 * 'X' or 'O' if this index holds all valid games where it is that player's turn, or that are terminal. 0 for an
+	 * index of some other list of games.
+	 */
+	private final char player;
+
+	/**
+	 * Indexes all valid games where it is {@code xo}'s turn, or that are terminal.
+	 *
+	 * @param xo 'X' or 'O'
+	 */
+	public StateIndex(char xo) {
+		this(xo, false);
+	}
+
+	/**
+	 * Indexes all valid games where it is {@code xo}'s turn, or that are terminal, optionally up to symmetry.
+	 *
+	 * @param xo        'X' or 'O'
+	 * @param symmetric whether to only index one game of every class of symmetric games
+	 */
+	public StateIndex(char xo, boolean symmetric) {
+		this(Game.enumerateValidGames(xo), symmetric, xo);
+	}
+
+	/**
+	 * The shared indexes of all valid games, each built on first use. Lazy initialisation of a holder class is thread
+	 * safe without locking.
+	 */
+	private static final class X {
+		static final StateIndex FULL = new StateIndex('X', false);
+	}
+
+	private static final class XSymmetric {
+		static final StateIndex INDEX = new StateIndex('X', true);
+	}
+
+	private static final class O {
+		static final StateIndex FULL = new StateIndex('O', false);
+	}
+
+	private static final class OSymmetric {
+		static final StateIndex INDEX = new StateIndex('O', true);
+	}
+
+	/**
+	 * Returns the shared index of all valid games where it is {@code xo}'s turn, or that are terminal. It is built the
+	 * first time it is asked for and the same instance is returned to every caller after that, so don't change the
+	 * games returned by {@link #game(int)}.
+	 *
+	 * @param xo        'X' or 'O'
+	 * @param symmetric whether to only index one game of every class of symmetric games
+	 * @return the index
+	 */
+	public static StateIndex of(char xo, boolean symmetric) {
+		if (xo == 'X')
+			return symmetric ? XSymmetric.INDEX : X.FULL;
+		if (xo == 'O')
+			return symmetric ? OSymmetric.INDEX : O.FULL;
+		throw new IllegalArgumentException("Argument should be either 'X' or 'O'");
+	}
+
+	/**
+	 * Indexes {@code games}, which should already have been evaluated (see {@link Game#evaluateGameState()}).
+	 *
+	 * @param games
+	 */
+	public StateIndex(List<Game> games) {
+		this(games, false);
+	}
+
+	/**
+	 * Indexes {@code games}, which should already have been evaluated (see {@link Game#evaluateGameState()}). When
+	 * {@code symmetric} is true only the canonical games are indexed, and the others are looked up through them. The
+	 * canonical representative of every game in the list should be in the list too.
+	 *
+	 * @param games
+	 * @param symmetric whether to only index one game of every class of symmetric games
+	 */
+	public StateIndex(List<Game> games, boolean symmetric) {
+		this(games, symmetric, '\0');
+	}
+
+	private StateIndex(List<Game> games, boolean symmetric, char player) {
+		this.player = player;
+		Arrays.fill(ordinals, -1);
+		List<Game> others = new ArrayList<Game>();
+		if (symmetric) {
+			List<Game> canonical = new ArrayList<Game>();
+			for (Game g : games)
+				(Symmetry.canonical(g) == 0 ? canonical : others).add(g);
+			games = canonical;
+		}
+
+		this.games = games.toArray(new Game[games.size()]);
+		this.hashes = new int[this.games.length];
+		this.moves = new short[this.games.length];
+		for (int i = 0; i < this.games.length; i++) {
+			Game g = this.games[i];
+			hashes[i] = g.hashCode();
+			ordinals[hashes[i]] = i;
+			if (!g.isTerminal())
+				moves[i] = (short) BitBoard.empty(g.xBits, g.oBits);
+			piecesStart[pieces(i) + 1]++;
+		}
+
+		// counting sort by number of pieces
+		for (int n = 0; n < 10; n++)
+			piecesStart[n + 1] += piecesStart[n];
+		this.byPieces = new int[this.games.length];
+		int[] fill = Arrays.copyOf(piecesStart, 10);
+		for (int i = 0; i < this.games.length; i++)
+			byPieces[fill[pieces(i)]++] = i;
+
+		if (!symmetric) {
+			this.symmetries = null;
+			return;
+		}
+
+		this.symmetries = new byte[HASHES];
+		for (Game g : others) {
+			int t = Symmetry.canonical(g);
+			int canonical = Game.hash(Symmetry.bits(t, g.xBits), Symmetry.bits(t, g.oBits), g.hashCode() % 3);
+			if (ordinals[canonical] < 0)
+				throw new IllegalArgumentException("Canonical game not in the list:" + g);
+			ordinals[g.hashCode()] = ordinals[canonical];
+			symmetries[g.hashCode()] = (byte) t;
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of states in this index
+	 */
+	public int size() {
+		return hashes.length;
+	}
+
+	/**
+	 *
+	 * @param g
+	 * @return the ordinal of {@code g}, or -1 if it isn't in this index
+	 */
+	public int ordinal(Game g) {
+		return ordinals[g.hashCode()];
+	}
+
+	/**
+	 *
+	 * @param hash a game hash as returned by {@link Game#hashCode}
+	 * @return the ordinal of the game with this hash, or -1 if it isn't in this index
+	 */
+	public int ordinalOfHash(int hash) {
+		return ordinals[hash];
+	}
+
+	/**
+	 *
+	 * @param ordinal
+	 * @return the hash of the game with this ordinal
+	 */
+	public int hash(int ordinal) {
+		return hashes[ordinal];
+	}
+
+	/**
+	 * The returned game is shared by everything using this index and should not be changed.
+	 *
+	 * @param ordinal
+	 * @return the game with this ordinal
+	 */
+	public Game game(int ordinal) {
+		return games[ordinal];
+	}
+
+	/**
+	 *
+	 * @param ordinal
+	 * @return the number of pieces (X's and O's) on the board
+	 */
+	public int pieces(int ordinal) {
+		return Integer.bitCount(games[ordinal].xBits | games[ordinal].oBits);
+	}
+
+	/**
+	 * States with more pieces can only come later in a game, so processing states in decreasing position in this order
+	 * visits every successor of a state before the state itself.
+	 *
+	 * @param position between 0 and {@code size()-1}
+	 * @return the ordinal at {@code position} when all states are ordered by the number of pieces on the board
+	 */
+	public int byPieces(int position) {
+		return byPieces[position];
+	}
+
+	/**
+	 *
+	 * @param pieces between 0 and 10
+	 * @return the first position in {@link #byPieces(int)} of the states with {@code pieces} pieces on the board (or of
+	 *         the states with more pieces if there are none). {@code piecesStart(10)} is {@code size()}.
+	 */
+	public int piecesStart(int pieces) {
+		return piecesStart[pieces];
+	}
+
+	public boolean isTerminal(int ordinal) {
+		return games[ordinal].isTerminal();
+	}
+
+	/**
+	 *
+	 * @param ordinal
+	 * @return the cells the player to move can play in, as a mask where cell {@code 3*x+y} is bit {@code 3*x+y}. Zero
+	 *         in terminal states.
+	 */
+	public int legalMoves(int ordinal) {
+		return moves[ordinal];
+	}
+
+	/**
+	 *
+	 * @return 'X' or 'O' if this index holds all valid games where it is that player's turn, or that are terminal (as
+	 *         built by {@link #StateIndex(char, boolean)}), otherwise 0
+	 */
+	public char getPlayer() {
+		return player;
+	}
+
+	/**
+	 *
+	 * @return true if this index only holds one game of every class of symmetric games
+	 */
+	public boolean isSymmetric() {
+		return symmetries != null;
+	}
+
+	/**
+	 *
+	 * @param g    a game in this index, or symmetric to one
+	 * @param cell a cell of {@code g}
+	 * @return the same cell in the indexed game {@code game(ordinal(g))}
+	 */
+	public int indexedCell(Game g, int cell) {
+		return symmetries == null ? cell : Symmetry.cell(symmetries[g.hashCode()], cell);
+	}
+
+	/**
+	 *
+	 * @param g    a game in this index, or symmetric to one
+	 * @param cell a cell of the indexed game {@code game(ordinal(g))}
+	 * @return the same cell in {@code g}
+	 */
+	public int gameCell(Game g, int cell) {
+		return symmetries == null ? cell : Symmetry.cell(Symmetry.inverse(symmetries[g.hashCode()]), cell);
+	}
+
+}
@@ -0,0 +1,131 @@
+package ticTacToe;
+
+import java.util.Arrays;
+
+/**
+ * A max-priority queue of state ordinals whose priorities can be changed while they are queued, kept as a binary heap
+ * in primitive arrays. Each state is in the queue at most once.
+ *
+ */
+final class StatePriorityQueue {
+
+	/**
+	 * heap[0..size-1] are the queued states
+	 */
+	private final int[] heap;
+
+	/**
+	 * position of each state in {@link #heap}, -1 if it isn't queued
+	 */
+	private final int[] pos;
+
+	private final double[] priority;
+
+	private int size = 0;
+
+	/**
+	 *
+	 * @param capacity the number of states, i.e. one more than the largest ordinal that can be queued
+	 */
+	StatePriorityQueue(int capacity) {
+		heap = new int[capacity];
+		pos = new int[capacity];
+		priority = new double[capacity];
+		Arrays.fill(pos, -1);
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 *
+	 * @return the highest priority in the queue, 0 if it is empty
+	 */
+	double peekPriority() {
+		return size == 0 ? 0.0 : priority[heap[0]];
+	}
+
+	/**
+	 * Queues {@code s} with priority {@code p}, or changes its priority to {@code p} if it is already queued.
+	 */
+	void put(int s, double p) {
+		if (pos[s] < 0) {
+			heap[size] = s;
+			pos[s] = size;
+			size++;
+			priority[s] = p;
+			up(pos[s]);
+		} else {
+			double old = priority[s];
+			priority[s] = p;
+			if (p > old)
+				up(pos[s]);
+			else
+				down(pos[s]);
+		}
+	}
+
+	/**
+	 * Removes {@code s} from the queue if it is queued.
+	 */
+	void remove(int s) {
+		int i = pos[s];
+		if (i < 0)
+			return;
+
+		size--;
+		pos[s] = -1;
+		if (i == size)
+			return;
+
+		int last = heap[size];
+		heap[i] = last;
+		pos[last] = i;
+		up(i);
+		down(pos[last]);
+	}
+
+	/**
+	 * Removes and returns the state with the highest priority.
+	 */
+	int poll() {
+		int top = heap[0];
+		remove(top);
+		return top;
+	}
+
+	private void up(int i) {
+		int s = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (priority[heap[parent]] >= priority[s])
+				break;
+			move(heap[parent], i);
+			i = parent;
+		}
+		move(s, i);
+	}
+
+	private void down(int i) {
+		int s = heap[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && priority[heap[child + 1]] > priority[heap[child]])
+				child++;
+			if (priority[heap[child]] <= priority[s])
+				break;
+			move(heap[child], i);
+			i = child;
+		}
+		move(s, i);
+	}
+
+	private void move(int s, int i) {
+		heap[i] = s;
+		pos[s] = i;
+	}
+
+}
@@ -0,0 +1,111 @@
+package ticTacToe;
+
+/**
+ * The 8 symmetries of the board (the dihedral group D4: four rotations, each with or without a reflection) as
+ * permutations of the cells numbered as in {@link BitBoard}. Symmetric games have the same value, and a move in one
+ * corresponds to the transformed move in the other, so solvers only need to store one game of every equivalence class:
+ * its canonical representative, which is the variant with the lowest {@link Game#hashCode}.
+ *
+ * Symmetry 0 is the identity.
+ *
+ */
+final class Symmetry {
+
+	/**
+	 * the number of symmetries
+	 */
+	static final int COUNT = 8;
+
+	/**
+	 * CELLS[t][c] is the cell that cell {@code c} is moved to by symmetry {@code t}
+	 */
+	private static final int[][] CELLS = new int[COUNT][9];
+
+	/**
+	 * BITS[t][mask] is {@code mask} with every cell moved by symmetry {@code t}
+	 */
+	private static final short[][] BITS = new short[COUNT][BitBoard.FULL + 1];
+
+	/**
+	 * INVERSE[t] is the symmetry that undoes {@code t}
+	 */
+	private static final int[] INVERSE = new int[COUNT];
+
+	static {
+		for (int x = 0; x < 3; x++)
+			for (int y = 0; y < 3; y++) {
+				int c = BitBoard.cell(x, y);
+				CELLS[0][c] = c;
+				CELLS[1][c] = BitBoard.cell(y, 2 - x); // rotate by 90 degrees
+				CELLS[2][c] = BitBoard.cell(2 - x, 2 - y); // rotate by 180 degrees
+				CELLS[3][c] = BitBoard.cell(2 - y, x); // rotate by 270 degrees
+				CELLS[4][c] = BitBoard.cell(2 - x, y); // flip top to bottom
+				CELLS[5][c] = BitBoard.cell(x, 2 - y); // flip left to right
+				CELLS[6][c] = BitBoard.cell(y, x); // main diagonal
+				CELLS[7][c] = BitBoard.cell(2 - y, 2 - x); // anti-diagonal
+			}
+
+		for (int t = 0; t < COUNT; t++) {
+			for (int mask = 1; mask <= BitBoard.FULL; mask++) {
+				int low = Integer.numberOfTrailingZeros(mask);
+				BITS[t][mask] = (short) (BITS[t][mask & (mask - 1)] | (1 << CELLS[t][low]));
+			}
+			for (int u = 0; u < COUNT; u++)
+				if (CELLS[u][CELLS[t][0]] == 0 && CELLS[u][CELLS[t][1]] == 1)
+					INVERSE[t] = u;
+		}
+	}
+
+	private Symmetry() {
+	}
+
+	/**
+	 *
+	 * @param t    a symmetry
+	 * @param cell
+	 * @return the cell {@code cell} is moved to by {@code t}
+	 */
+	static int cell(int t, int cell) {
+		return CELLS[t][cell];
+	}
+
+	/**
+	 *
+	 * @param t    a symmetry
+	 * @param bits a mask of cells
+	 * @return {@code bits} with every cell moved by {@code t}
+	 */
+	static int bits(int t, int bits) {
+		return BITS[t][bits];
+	}
+
+	/**
+	 *
+	 * @param t a symmetry
+	 * @return the symmetry that undoes {@code t}
+	 */
+	static int inverse(int t) {
+		return INVERSE[t];
+	}
+
+	/**
+	 * If {@code g} is symmetric, more than one symmetry gives the canonical game. The first one is returned.
+	 *
+	 * @param g
+	 * @return the symmetry that turns {@code g} into its canonical representative
+	 */
+	static int canonical(Game g) {
+		int turn = g.hashCode() % 3;
+		int best = 0;
+		int min = Integer.MAX_VALUE;
+		for (int t = 0; t < COUNT; t++) {
+			int hash = Game.hash(BITS[t][g.xBits], BITS[t][g.oBits], turn);
+			if (hash < min) {
+				min = hash;
+				best = t;
+			}
+		}
+		return best;
+	}
+
+}
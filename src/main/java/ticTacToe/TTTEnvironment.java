@@ -27,6 +27,11 @@ public class TTTEnvironment {
 	double livingReward=-1.00;
 	double drawReward=0.0;
 	
+	/**
+	 * given to every game played in this environment, see {@link Game#setListener}
+	 */
+	GameListener listener=GameListener.NONE;
+	
 	
 	/**
 	 * By default, the environment contains an opponent that plays randomly, i.e. a {@link RandomAgent}; and uses all the
@@ -80,21 +85,24 @@ public class TTTEnvironment {
 	
 		
 		if (!game.isLegal(m))
+		{
+			listener.illegalMove(game, m, "Illegal Move");
 			throw new IllegalMoveException("Illegal Move:"+m+" on:"+game);
+		}
 		else if (game.isTerminal())
 		{
-			System.out.println("Executing move in terminal state. Returning null.");
+			listener.illegalMove(game, m, "Executing move in terminal state. Returning null.");
 			return null;
 		}
 		else if (m.who.getName()!='X')
 		{
-			System.out.println("Trying to executing O move - the RL agent must always play as X. Returning null Outcome object.");
+			listener.illegalMove(game, m, "Trying to executing O move - the RL agent must always play as X. Returning null Outcome object.");
 			return null;
 		}
 		
 		Game prev=this.game.clone();
 		
-		game.executeMove(m);
+		game.play(m.cell());// legal, checked above
 		
 		if (game.getState()==Game.X_WON)
 		{
@@ -109,10 +117,13 @@ public class TTTEnvironment {
 		//If we are here, the game is ongoing. So now it's the opponent's turn to play.
 		Move oMove=game.o.getMove(game);
 		if (!game.isLegal(oMove))
+		{
+			listener.illegalMove(game, oMove, "Illegal opponent move");
 			throw new IllegalMoveException("Illegal Move:"+m+" on:"+game);
+		}
 		
 		
-		game.executeMove(oMove);
+		game.play(oMove.cell());
 		if (game.getState()==Game.O_WON)
 		{
 			return new Outcome(prev, m, this.loseReward, game);
@@ -137,11 +148,35 @@ public class TTTEnvironment {
 	
 	
 	/**
-	 * Resets current game state to a new game state (empty board)
+	 * Resets current game state to a new game state (empty board), against the same opponent
 	 */
 	public void reset()
 	{
-		this.game=new Game(new Agent(), new RandomAgent());
+		this.game=new Game(game.x, game.o);
+		game.setListener(listener);
+	}
+	
+	/**
+	 * Sets the listener of the current game and of every game after it, for example to record the games played while 
+	 * training.
+	 * 
+	 * @param listener
+	 */
+	public void setListener(GameListener listener)
+	{
+		game.setListener(listener);
+		this.listener=listener;
+	}
+	
+	/**
+	 * 
+	 * @return a new environment with the same opponent, rewards and listener as this one, and a new game
+	 */
+	public TTTEnvironment copy()
+	{
+		TTTEnvironment copy=new TTTEnvironment(game.o, winReward, loseReward, livingReward, drawReward);
+		copy.setListener(listener);
+		return copy;
 	}
 	
 	
@@ -26,6 +26,11 @@ public class TTTMDP {
 	double livingReward=-1.00;
 	double drawReward=0.0;
 	
+	/**
+	 * The last table built by {@link #compile(StateIndex)}
+	 */
+	private TransitionTable compiled;
+	
 	public TTTMDP() {
 	
 		
@@ -44,6 +49,7 @@ public class TTTMDP {
 	 * probabilities. 
 	 * This essentially gives you a uniform probability distribution over all possible resulting game states and rewards when making move {@code m} 
 	 * in game {@code g}. This is implemented for you to use in your Value Iteration and Policy Iteration implementations. 
+	 * Throws an IllegalArgumentException if {@code m} is illegal in {@code g}.
 	 * @param g
 	 * @param m
 	 * @return
@@ -67,10 +73,8 @@ public class TTTMDP {
 		}
 		catch(IllegalMoveException e)
 		{
-			System.out.println("WARNING: illegal move "+m+" tried when generating transitions. Returning empty list.");
-			System.out.println(e.getMessage());
-			
-			return result;
+			// the solvers only ask about legal moves, so this is a bug in the caller
+			throw new IllegalArgumentException("Illegal move "+m+" tried when generating transitions: "+e.getMessage(), e);
 		}
 		
 		//first check if X has won.
@@ -99,16 +103,20 @@ public class TTTMDP {
 		//If we are here equal chance that the opponent will move into the available places.
 		//we generate simulate all these, and associate them with equal probability
 		
-		List<Game> nextPossibleStates=intermediate.getAllSuccessorGames();
-		for(Game game: nextPossibleStates)
+		//the opponent's moves are played and taken back on intermediate, only the outcomes are copied.
+		int moves=intermediate.getLegalMoves();
+		double prob=(double)1/Integer.bitCount(moves);
+		for(;moves!=0;moves&=moves-1)
 		{
+			int cell=Integer.numberOfTrailingZeros(moves);
+			intermediate.play(cell);
 			double reward;	
-			if(game.getState()==Game.O_WON)
+			if(intermediate.getState()==Game.O_WON)
 			{
 				reward=this.loseReward;
 				
 			}
-			else if (game.getState()==Game.DRAW)
+			else if (intermediate.getState()==Game.DRAW)
 			{
 				reward=this.drawReward;
 				
@@ -119,11 +127,11 @@ public class TTTMDP {
 				reward=this.livingReward;
 			}
 			
-			Outcome o=new Outcome(g, m, reward, game);
-			double prob=(double)1/nextPossibleStates.size();
+			Outcome o=new Outcome(g, m, reward, intermediate.clone());
 			
 			TransitionProb transProb=new TransitionProb(o, prob);
 			result.add(transProb);
+			intermediate.undo(cell);
 			
 		}
 		
@@ -137,6 +145,22 @@ public class TTTMDP {
 	
 	
 	
+	/**
+	 * Compiles this MDP over {@code states} into a {@link TransitionTable}: runs {@link #generateTransitions} once for 
+	 * every legal move in every state and stores the results in primitive arrays. The table is cached, so solvers can call
+	 * this at the start of every sweep.
+	 * 
+	 * @param states every successor state must be in this index
+	 * @return the transition table
+	 */
+	public synchronized TransitionTable compile(StateIndex states)
+	{
+		if (compiled==null || compiled.states!=states)
+			compiled=new TransitionTable(this, states);
+		
+		return compiled;
+	}
+	
 	public boolean isTerminal(Game g)
 	{
 		return g.isTerminal();
@@ -150,7 +174,7 @@ public class TTTMDP {
 		g.executeMove('X',0,1);
 		g.executeMove('O', 2,2);
 		
-		Move m=new Move('X', 0,2);
+		Move m=Move.of('X', 0,2);
 		
 		TTTMDP gm=new TTTMDP();
 		List<TransitionProb> tps=gm.generateTransitions(g, m);
@@ -0,0 +1,193 @@
+package ticTacToe;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The binary file format used to store tables indexed by the ordinals of a {@link StateIndex}, such as policies. A file
+ * is a fixed 20 byte header followed by the table itself:
+ *
+ * <pre>
+ * int   magic      'TTTF'
+ * short version    {@link #VERSION}
+ * byte  type       what the table holds, e.g. {@link #POLICY}
+ * byte  player     'X' or 'O': the index holds the games where it is this player's turn, or that are terminal
+ * byte  symmetric  1 if the index is symmetric, 0 if not (see {@link StateIndex#of(char, boolean)})
+ * byte[3]          reserved, 0
+ * int   count      the number of states in the index
+ * int   crc        CRC32 of the table
+ * ...   table      in ordinal order
+ * </pre>
+ *
+ * All numbers are big-endian. Files are read by mapping them into memory, so a table can be used straight from the
+ * file without being copied.
+ *
+ */
+final class TableFile {
+
+	static final int MAGIC = 0x54545446;
+
+	static final short VERSION = 1;
+
+	static final int HEADER = 20;
+
+	/**
+	 * A policy: one byte per state, the cell to play or -1 for none.
+	 */
+	static final byte POLICY = 1;
+
+	/**
+	 * State values: one double per state.
+	 */
+	static final byte VALUES = 2;
+
+	/**
+	 * Q-values: 9 doubles per state, one per cell.
+	 */
+	static final byte Q_VALUES = 3;
+
+	/**
+	 * the index the table is over
+	 */
+	final StateIndex states;
+
+	/**
+	 * the table, from position 0 to its limit
+	 */
+	final ByteBuffer table;
+
+	private TableFile(StateIndex states, ByteBuffer table) {
+		this.states = states;
+		this.table = table;
+	}
+
+	/**
+	 * Writes {@code table} (from its position to its limit) to {@code file}, replacing it if it exists.
+	 *
+	 * @param file
+	 * @param type   e.g. {@link #POLICY}
+	 * @param states the index the table is over, one of the indexes of all valid games (see
+	 *               {@link StateIndex#getPlayer()}) so that it can be rebuilt when the file is read
+	 * @param table
+	 * @throws IOException
+	 */
+	static void write(String file, byte type, StateIndex states, ByteBuffer table) throws IOException {
+		char player = states.getPlayer();
+		if (player == 0)
+			throw new IllegalArgumentException("Only tables over the indexes of all valid games can be written");
+
+		CRC32 crc = new CRC32();
+		crc.update(table.duplicate());
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		header.putInt(MAGIC).putShort(VERSION).put(type).put((byte) player).put((byte) (states.isSymmetric() ? 1 : 0));
+		header.put(new byte[3]).putInt(states.size()).putInt((int) crc.getValue());
+		header.flip();
+
+		// Written to a temporary file that then replaces the target, so the target is never truncated under a policy
+		// still mapped from it, and a failed write leaves the old file as it was.
+		Path target = Paths.get(file).toAbsolutePath();
+		Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+		try {
+			FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+			try {
+				ByteBuffer data = table.duplicate();
+				while (header.hasRemaining())
+					channel.write(header);
+				while (data.hasRemaining())
+					channel.write(data);
+			} finally {
+				channel.close();
+			}
+
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	/**
+	 * Writes an array of doubles, {@code values.length/states.size()} per state, to {@code file}.
+	 *
+	 * @param file
+	 * @param type   {@link #VALUES} or {@link #Q_VALUES}
+	 * @param states
+	 * @param values
+	 * @throws IOException
+	 */
+	static void write(String file, byte type, StateIndex states, double[] values) throws IOException {
+		ByteBuffer table = ByteBuffer.allocate(8 * values.length);
+		table.asDoubleBuffer().put(values);
+		write(file, type, states, table);
+	}
+
+	/**
+	 *
+	 * @return a copy of the table as an array of doubles, for tables of {@link #VALUES} or {@link #Q_VALUES}
+	 */
+	double[] toDoubles() {
+		double[] values = new double[table.limit() / 8];
+		table.duplicate().asDoubleBuffer().get(values);
+		return values;
+	}
+
+	/**
+	 * Maps {@code file} into memory and checks its header and checksum.
+	 *
+	 * @param file
+	 * @param type      the type of table expected
+	 * @param entrySize the number of bytes per state in a table of this type
+	 * @return the index and the (read only) table
+	 * @throws IOException if the file can't be read, or isn't a valid file of this type
+	 */
+	static TableFile map(String file, byte type, int entrySize) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		MappedByteBuffer mapped;
+		try {
+			// the mapping stays valid after the file is closed
+			mapped = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+		} finally {
+			in.close();
+		}
+
+		if (mapped.limit() < HEADER || mapped.getInt(0) != MAGIC)
+			throw new IOException(file + " is not a table file");
+		if (mapped.getShort(4) != VERSION)
+			throw new IOException(file + " has unsupported version " + mapped.getShort(4));
+		if (mapped.get(6) != type)
+			throw new IOException(file + " holds table type " + mapped.get(6) + ", expected " + type);
+
+		char player = (char) mapped.get(7);
+		if (player != 'X' && player != 'O')
+			throw new IOException(file + " has invalid player " + player);
+		StateIndex states = StateIndex.of(player, mapped.get(8) != 0);
+
+		int count = mapped.getInt(12);
+		if (count != states.size() || mapped.limit() != HEADER + (long) count * entrySize)
+			throw new IOException(file + " has " + count + " states, expected " + states.size());
+
+		mapped.position(HEADER);
+		ByteBuffer table = mapped.slice();
+		CRC32 crc = new CRC32();
+		crc.update(table.duplicate());
+		if ((int) crc.getValue() != mapped.getInt(16))
+			throw new IOException(file + " is corrupt: checksum mismatch");
+
+		return new TableFile(states, table.asReadOnlyBuffer());
+	}
+
+}
@@ -0,0 +1,385 @@
+package ticTacToe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * A headless round-robin tournament between agents, for evaluating policies over many games. Every agent plays every
+ * other agent a given number of games as X and the same number as O; or, as the agents trained here only learn to play
+ * X, every agent of one list plays every agent of another list as X. Games are played with {@link Game#play(int)}
+ * rather than {@link Game#playOut()}, so nothing is printed, and the games of each pairing are split over several
+ * threads. The random policies draw from {@link java.util.concurrent.ThreadLocalRandom}, so every thread has its own
+ * random number generator.
+ *
+ * An {@link Agent} takes its name from the side it plays in its latest game, so an agent can't play both sides at
+ * once: pairings are played one after another, and agents don't play themselves.
+ *
+ * Results are kept per pairing as wins, losses and draws from X's point of view, with Wilson score confidence intervals
+ * for each rate.
+ *
+ */
+public class Tournament {
+
+	/**
+	 * z for a 95% confidence interval
+	 */
+	public static final double Z95 = 1.959964;
+
+	/**
+	 * the agents that play X, and those that play O. The same array for a round-robin.
+	 */
+	private final Agent[] xAgents;
+	private final Agent[] oAgents;
+
+	/**
+	 * games won by X, won by O and drawn, indexed by [X agent][O agent]
+	 */
+	private final long[][] xWins;
+	private final long[][] oWins;
+	private final long[][] draws;
+
+	/**
+	 * games forfeited by X and by O for playing an illegal move (or no move at all), indexed by [X agent][O agent]. A
+	 * forfeit also counts as a win for the other side.
+	 */
+	private final long[][] xForfeits;
+	private final long[][] oForfeits;
+
+	/**
+	 * the number of threads each pairing is split over
+	 */
+	int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * given every game played, see {@link Game#setListener}. Must be thread safe.
+	 */
+	GameListener listener = GameListener.NONE;
+
+	private long games = 0;
+	private long nanos = 0;
+
+	/**
+	 * A round-robin, where every agent plays every other agent both as X and as O.
+	 *
+	 * @param agents at least two agents, all different objects
+	 */
+	public Tournament(Agent... agents) {
+		this(agents, agents);
+		if (agents.length < 2)
+			throw new IllegalArgumentException("A tournament needs at least two agents");
+	}
+
+	/**
+	 * Every agent in {@code xAgents} plays every agent in {@code oAgents}, except itself if it is in both.
+	 *
+	 * @param xAgents the agents that play X, all different objects
+	 * @param oAgents the agents that play O, all different objects
+	 */
+	public Tournament(Agent[] xAgents, Agent[] oAgents) {
+		checkDistinct(xAgents);
+		checkDistinct(oAgents);
+		this.xAgents = xAgents.clone();
+		this.oAgents = (oAgents == xAgents) ? this.xAgents : oAgents.clone();
+		int n = xAgents.length;
+		int m = oAgents.length;
+		xWins = new long[n][m];
+		oWins = new long[n][m];
+		draws = new long[n][m];
+		xForfeits = new long[n][m];
+		oForfeits = new long[n][m];
+	}
+
+	private static void checkDistinct(Agent[] agents) {
+		for (int i = 0; i < agents.length; i++)
+			for (int j = 0; j < i; j++)
+				if (agents[i] == agents[j])
+					throw new IllegalArgumentException("Agent " + i + " is the same object as agent " + j);
+	}
+
+	/**
+	 * Sets the number of threads the games of each pairing are split over.
+	 *
+	 * @param parallelism
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("parallelism should be at least 1");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the listener of every game played from now on, for example a {@link GameRecordWriter} to keep the games.
+	 * Games are played on several threads at once, so the listener must be thread safe.
+	 *
+	 * @param listener
+	 */
+	public void setListener(GameListener listener) {
+		if (listener == null)
+			throw new IllegalArgumentException("Use GameListener.NONE rather than null");
+		this.listener = listener;
+	}
+
+	/**
+	 * Plays {@code games} games of every X agent against every O agent, and adds the results to those of earlier runs.
+	 *
+	 * @param games the number of games of each pairing, so in a round-robin each agent plays each other agent
+	 *              {@code games} times as X and {@code games} times as O.
+	 */
+	public void run(int games) {
+		long start = System.nanoTime();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			for (int x = 0; x < xAgents.length; x++)
+				for (int o = 0; o < oAgents.length; o++)
+					if (xAgents[x] != oAgents[o])
+						run(pool, x, o, games);
+		} finally {
+			pool.shutdown();
+		}
+		this.nanos += System.nanoTime() - start;
+	}
+
+	private void run(ForkJoinPool pool, int x, int o, int games) {
+		final Agent xAgent = xAgents[x];
+		final Agent oAgent = oAgents[o];
+		final GameListener listener = this.listener;
+		List<Callable<long[]>> workers = new ArrayList<Callable<long[]>>();
+		for (int i = 0; i < parallelism; i++) {
+			final int n = games / parallelism + ((i < games % parallelism) ? 1 : 0);
+			if (n > 0)
+				workers.add(new Callable<long[]>() {
+					public long[] call() {
+						return play(xAgent, oAgent, n, listener);
+					}
+				});
+		}
+
+		try {
+			for (Future<long[]> f : pool.invokeAll(workers)) {
+				long[] r = f.get();
+				xWins[x][o] += r[0];
+				oWins[x][o] += r[1];
+				draws[x][o] += r[2];
+				xForfeits[x][o] += r[3];
+				oForfeits[x][o] += r[4];
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while playing", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A game between " + name(xAgents, x) + " and " + name(oAgents, o) + " failed",
+					e.getCause());
+		}
+		this.games += games;
+	}
+
+	/**
+	 * Plays {@code games} games of {@code x} against {@code o} without printing anything.
+	 *
+	 * @param x     the agent playing X, who moves first
+	 * @param o     the agent playing O
+	 * @param games
+	 * @return {@code [X won, O won, drawn, forfeited by X, forfeited by O]}. Forfeits are also counted as wins for the
+	 *         other side.
+	 */
+	public static long[] play(Agent x, Agent o, int games) {
+		return play(x, o, games, GameListener.NONE);
+	}
+
+	/**
+	 * Plays {@code games} games of {@code x} against {@code o}, telling {@code listener} about them.
+	 *
+	 * @see #play(Agent, Agent, int)
+	 */
+	public static long[] play(Agent x, Agent o, int games, GameListener listener) {
+		long[] results = new long[5];
+		for (int i = 0; i < games; i++) {
+			Game g = new Game(x, o, x);
+			g.setListener(listener);
+			while (g.state == Game.ONGOING) {
+				Move m = g.whoseTurn.getMove(g);
+				if (m == null || !g.isLegal(m)) {
+					listener.illegalMove(g, m, "forfeited by " + g.whoseTurn.getName());
+					listener.gameEnded(g);
+					boolean xToPlay = g.whoseTurn == x;
+					results[xToPlay ? 1 : 0]++;
+					results[xToPlay ? 3 : 4]++;
+					break;
+				}
+				g.play(m.cell());
+			}
+
+			if (g.state == Game.X_WON)
+				results[0]++;
+			else if (g.state == Game.O_WON)
+				results[1]++;
+			else if (g.state == Game.DRAW)
+				results[2]++;
+		}
+		return results;
+	}
+
+	public Agent getXAgent(int x) {
+		return xAgents[x];
+	}
+
+	public Agent getOAgent(int o) {
+		return oAgents[o];
+	}
+
+	public int getXAgentCount() {
+		return xAgents.length;
+	}
+
+	public int getOAgentCount() {
+		return oAgents.length;
+	}
+
+	/**
+	 *
+	 * @return the class name of agent {@code i}, with its position if another agent in the list has the same class
+	 */
+	private static String name(Agent[] agents, int i) {
+		String name = agents[i].getClass().getSimpleName();
+		for (int j = 0; j < agents.length; j++)
+			if (j != i && agents[j].getClass() == agents[i].getClass())
+				return name + "#" + i;
+		return name;
+	}
+
+	/**
+	 *
+	 * @return the number of games of {@code x} (as X) against {@code o} (as O)
+	 */
+	public long getGames(int x, int o) {
+		return xWins[x][o] + oWins[x][o] + draws[x][o];
+	}
+
+	/**
+	 *
+	 * @return the number of games {@code x} has won as X against {@code o}
+	 */
+	public long getWins(int x, int o) {
+		return xWins[x][o];
+	}
+
+	/**
+	 *
+	 * @return the number of games {@code x} has lost as X against {@code o}
+	 */
+	public long getLosses(int x, int o) {
+		return oWins[x][o];
+	}
+
+	public long getDraws(int x, int o) {
+		return draws[x][o];
+	}
+
+	/**
+	 *
+	 * @return the number of games {@code x} (as X) and {@code o} (as O) have forfeited against each other by playing
+	 *         an illegal move: {@code [by x, by o]}
+	 */
+	public long[] getForfeits(int x, int o) {
+		return new long[] { xForfeits[x][o], oForfeits[x][o] };
+	}
+
+	/**
+	 *
+	 * @return the 95% confidence interval of the rate at which {@code x} wins as X against {@code o}, as
+	 *         {@code [low, high]}
+	 */
+	public double[] getWinInterval(int x, int o) {
+		return wilson(xWins[x][o], getGames(x, o), Z95);
+	}
+
+	public double[] getLossInterval(int x, int o) {
+		return wilson(oWins[x][o], getGames(x, o), Z95);
+	}
+
+	public double[] getDrawInterval(int x, int o) {
+		return wilson(draws[x][o], getGames(x, o), Z95);
+	}
+
+	/**
+	 *
+	 * @return the total number of games played
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 *
+	 * @return the number of games played per second, over all calls to {@link #run(int)}
+	 */
+	public double getGamesPerSecond() {
+		return nanos == 0 ? 0 : games * 1e9 / nanos;
+	}
+
+	/**
+	 * The Wilson score interval of a binomial proportion. Unlike the normal approximation it stays within [0, 1] and
+	 * isn't empty when there are no (or only) successes, which is the usual case for a strong agent's losses.
+	 *
+	 * @param successes
+	 * @param trials
+	 * @param z         the standard normal quantile of the confidence level, e.g. {@link #Z95}
+	 * @return {@code [low, high]}, {@code [0, 1]} if there were no trials
+	 */
+	public static double[] wilson(long successes, long trials, double z) {
+		if (trials == 0)
+			return new double[] { 0, 1 };
+
+		double n = trials;
+		double p = successes / n;
+		double z2 = z * z;
+		double centre = (p + z2 / (2 * n)) / (1 + z2 / n);
+		double half = z / (1 + z2 / n) * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+		return new double[] { Math.max(0, centre - half), Math.min(1, centre + half) };
+	}
+
+	/**
+	 * A table of every pairing's results, with X down the side and O along the top. Each cell has X's wins, losses
+	 * and draws in percent, and the 95% confidence interval of the loss rate. Pairings with forfeits are marked with a
+	 * {@code !}.
+	 */
+	public String toString() {
+		StringBuilder s = new StringBuilder();
+		s.append(String.format("%-24s", "X \\ O"));
+		for (int o = 0; o < oAgents.length; o++)
+			s.append(String.format(" | %-32s", name(oAgents, o)));
+		s.append('\n');
+
+		for (int x = 0; x < xAgents.length; x++) {
+			s.append(String.format("%-24s", name(xAgents, x)));
+			for (int o = 0; o < oAgents.length; o++) {
+				if (getGames(x, o) == 0) {
+					s.append(String.format(" | %-32s", "-"));
+					continue;
+				}
+				double n = getGames(x, o);
+				double[] loss = getLossInterval(x, o);
+				s.append(String.format(" | W%5.1f L%5.1f D%5.1f [%4.1f,%4.1f]", 100 * xWins[x][o] / n,
+						100 * oWins[x][o] / n, 100 * draws[x][o] / n, 100 * loss[0], 100 * loss[1]));
+				if (xForfeits[x][o] + oForfeits[x][o] > 0)
+					s.append('!');
+			}
+			s.append('\n');
+		}
+		s.append(String.format("%d games, %.0f games/s%n", games, getGamesPerSecond()));
+		return s.toString();
+	}
+
+	public static void main(String a[]) {
+		// the planning agents, which only play X, against the rule based opponents
+		Tournament t = new Tournament(new Agent[] { new ValueIterationAgent(), new RetrogradeAgent(), new RandomAgent() },
+				new Agent[] { new RandomAgent(), new AggressiveAgent() });
+		t.run(a.length > 0 ? Integer.parseInt(a[0]) : 100000);
+		System.out.print(t);
+	}
+
+}
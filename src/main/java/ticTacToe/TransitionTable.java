@@ -0,0 +1,194 @@
+package ticTacToe;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link TTTMDP} compiled over the states of a {@link StateIndex}: every transition that
+ * {@link TTTMDP#generateTransitions} would return is stored once, in primitive arrays, so that solvers can do Bellman
+ * backups without creating any {@link Game}, {@link Outcome} or {@link TransitionProb} objects.
+ *
+ * The layout is compressed sparse rows: the transitions of q-state {@code (s, cell)} are at positions
+ * {@code start[9*s+cell]} (inclusive) to {@code start[9*s+cell+1]} (exclusive) of {@link #next}, {@link #prob} and
+ * {@link #reward}. Illegal moves and terminal states have no transitions.
+ *
+ * Build one with {@link TTTMDP#compile(StateIndex)}.
+ *
+ */
+public class TransitionTable {
+
+	final StateIndex states;
+
+	/**
+	 * start[9*s+cell] is the position of the first transition of playing {@code cell} in state {@code s}
+	 */
+	final int[] start;
+
+	/**
+	 * the ordinal of the state transitioned into
+	 */
+	final int[] next;
+
+	final double[] prob;
+
+	final double[] reward;
+
+	/**
+	 * The predecessor graph, built on first use by {@link #predecessors()}: the distinct states that can transition
+	 * into state {@code s} are at positions {@code predStart[s]} to {@code predStart[s+1]} of {@code pred}.
+	 */
+	private int[] predStart;
+
+	private int[] pred;
+
+	TransitionTable(TTTMDP mdp, StateIndex states) {
+		this.states = states;
+		this.start = new int[9 * states.size() + 1];
+
+		// first pass to size the arrays
+		int count = 0;
+		for (int s = 0; s < states.size(); s++)
+			for (int moves = states.legalMoves(s); moves != 0; moves &= moves - 1)
+				count += transitions(mdp, s, Integer.numberOfTrailingZeros(moves)).size();
+
+		this.next = new int[count];
+		this.prob = new double[count];
+		this.reward = new double[count];
+
+		int t = 0;
+		for (int s = 0; s < states.size(); s++) {
+			for (int cell = 0; cell < 9; cell++) {
+				start[9 * s + cell] = t;
+				if ((states.legalMoves(s) & (1 << cell)) == 0)
+					continue;
+
+				for (TransitionProb tp : transitions(mdp, s, cell)) {
+					next[t] = states.ordinal(tp.outcome.sPrime);
+					if (next[t] < 0)
+						throw new IllegalStateException("Transition to a state that is not indexed:" + tp.outcome.sPrime);
+					prob[t] = tp.prob;
+					reward[t] = tp.outcome.localReward;
+					t++;
+				}
+			}
+		}
+		start[9 * states.size()] = t;
+	}
+
+	/**
+	 * Builds the predecessor graph if it hasn't been built yet.
+	 *
+	 * @return the predecessors of every state: {@code [predStart, pred]}, see {@link #predStart}.
+	 */
+	synchronized int[][] predecessors() {
+		if (pred != null)
+			return new int[][] { predStart, pred };
+
+		int n = states.size();
+		// mark[t]==s+1 once s has been counted as a predecessor of t, so that each state is only counted once
+		int[] mark = new int[n];
+		int[] counts = new int[n + 1];
+		for (int s = 0; s < n; s++)
+			for (int t = start[9 * s]; t < start[9 * s + 9]; t++)
+				if (mark[next[t]] != s + 1) {
+					mark[next[t]] = s + 1;
+					counts[next[t] + 1]++;
+				}
+
+		int[] predStart = new int[n + 1];
+		for (int s = 0; s < n; s++)
+			predStart[s + 1] = predStart[s] + counts[s + 1];
+
+		int[] pred = new int[predStart[n]];
+		int[] fill = Arrays.copyOf(predStart, n);
+		Arrays.fill(mark, 0);
+		for (int s = 0; s < n; s++)
+			for (int t = start[9 * s]; t < start[9 * s + 9]; t++)
+				if (mark[next[t]] != s + 1) {
+					mark[next[t]] = s + 1;
+					pred[fill[next[t]]++] = s;
+				}
+
+		this.predStart = predStart;
+		this.pred = pred;
+		return new int[][] { predStart, pred };
+	}
+
+	private List<TransitionProb> transitions(TTTMDP mdp, int s, int cell) {
+		Game g = states.game(s);
+		return mdp.generateTransitions(g, Move.of(g.whoseTurn.getName(), cell));
+	}
+
+	public StateIndex getStates() {
+		return states;
+	}
+
+	/**
+	 *
+	 * @return the total number of transitions in the table
+	 */
+	public int size() {
+		return next.length;
+	}
+
+	/**
+	 * Computes the q-value of playing {@code cell} in state {@code s}: the expected local reward plus discounted value
+	 * of the next state.
+	 *
+	 * @param s        a state ordinal
+	 * @param cell
+	 * @param values   state values, indexed by ordinal
+	 * @param discount
+	 * @return the q-value, 0 if the move has no transitions
+	 */
+	public double qValue(int s, int cell, double[] values, double discount) {
+		double sum = 0;
+		for (int t = start[9 * s + cell], end = start[9 * s + cell + 1]; t < end; t++)
+			sum += prob[t] * (reward[t] + discount * values[next[t]]);
+		return sum;
+	}
+
+	/**
+	 *
+	 * @param s        a state ordinal
+	 * @param values   state values, indexed by ordinal
+	 * @param discount
+	 * @return the highest q-value of any legal move in {@code s}, 0 if {@code s} is terminal.
+	 */
+	public double maxQValue(int s, double[] values, double discount) {
+		int moves = states.legalMoves(s);
+		if (moves == 0)
+			return 0.0;
+
+		double max = Double.NEGATIVE_INFINITY;
+		for (; moves != 0; moves &= moves - 1) {
+			double q = qValue(s, Integer.numberOfTrailingZeros(moves), values, discount);
+			if (q > max)
+				max = q;
+		}
+		return max;
+	}
+
+	/**
+	 *
+	 * @param s        a state ordinal
+	 * @param values   state values, indexed by ordinal
+	 * @param discount
+	 * @return the legal move in {@code s} with the highest q-value (the first one if there are ties), -1 if {@code s}
+	 *         is terminal.
+	 */
+	public int bestMove(int s, double[] values, double discount) {
+		int best = -1;
+		double max = Double.NEGATIVE_INFINITY;
+		for (int moves = states.legalMoves(s); moves != 0; moves &= moves - 1) {
+			int cell = Integer.numberOfTrailingZeros(moves);
+			double q = qValue(s, cell, values, discount);
+			if (q > max) {
+				max = q;
+				best = cell;
+			}
+		}
+		return best;
+	}
+
+}
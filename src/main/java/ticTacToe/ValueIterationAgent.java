@@ -1,9 +1,8 @@
 package ticTacToe;
 
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  * A Value Iteration Agent, only very partially implemented. The methods to implement are: 
@@ -17,9 +16,14 @@ import java.util.Map;
 public class ValueIterationAgent extends Agent {
 
 	/**
-	 * This map is used to store the values of states
+	 * The states of the MDP: all valid games where it is X's turn, or that are terminal.
 	 */
-	Map<Game, Double> valueFunction=new HashMap<Game, Double>();
+	StateIndex states;
+	
+	/**
+	 * This array is used to store the values of states, indexed by their ordinal in {@link #states}
+	 */
+	double[] valueFunction;
 	
 	/**
 	 * the discount factor
@@ -36,6 +40,36 @@ public class ValueIterationAgent extends Agent {
 	 */
 	int k=10;
 	
+	/**
+	 * The number of worker threads used for each sweep. With 0 (the default) values are updated serially and in place, 
+	 * so each update already sees the new values of the states before it. Otherwise sweeps are synchronous (Jacobi): 
+	 * every state is backed up from the values of the previous sweep into a second array, the work is split over a 
+	 * {@link ForkJoinPool} of this many threads, and the result is the same whatever the number of threads.
+	 */
+	int parallelism=0;
+	
+	/**
+	 * The convergence threshold. If this is more than 0, {@link #iterate} ignores {@link #k} and keeps sweeping until the 
+	 * residual (the largest change to any state's value in a sweep) is below it, or {@link #maxSweeps} sweeps are done. 
+	 */
+	double epsilon=0;
+	
+	/**
+	 * the most sweeps {@link #iterate} will do when waiting for the values to converge
+	 */
+	int maxSweeps=1000;
+	
+	/**
+	 * statistics of the sweeps done by the last call to {@link #iterate}
+	 */
+	SolverMetrics metrics=new SolverMetrics();
+	
+	/**
+	 * If true {@link #states} only holds one game of every class of symmetric games (see {@link StateIndex}), so values 
+	 * are stored and backed up for about an eighth of the states.
+	 */
+	boolean symmetric=false;
+	
 	
 	/**
 	 * This constructor trains the agent offline first and sets its policy
@@ -68,34 +102,44 @@ public class ValueIterationAgent extends Agent {
 	}
 	
 	/**
-	 * Initialises the {@link ValueIterationAgent#valueFunction} map, and sets the initial value of all states to 0 
-	 * (V0 from the lectures). Uses {@link Game#inverseHash} and {@link Game#generateAllValidGames(char)} to do this. 
+	 * Initialises the {@link ValueIterationAgent#valueFunction} array, and sets the initial value of all states to 0 
+	 * (V0 from the lectures). Uses {@link StateIndex} and {@link Game#generateAllValidGames(char)} to do this. 
 	 * 
 	 */
 	public void initValues()
 	{
 		
-		List<Game> allGames=Game.generateAllValidGames('X');//all valid games where it is X's turn, or it's terminal.
-		for(Game g: allGames)
-			this.valueFunction.put(g, 0.0);
+		this.states=StateIndex.of('X', symmetric);//all valid games where it is X's turn, or it's terminal.
+		this.valueFunction=new double[states.size()];
 		
 		
 		
 	}
 	
+	/**
+	 * 
+	 * @param g
+	 * @return the current value of game {@code g}
+	 */
+	public double getValue(Game g)
+	{
+		return valueFunction[states.ordinal(g)];
+	}
+	
 	
 	
 	public ValueIterationAgent(double discountFactor, double winReward, double loseReward, double livingReward, double drawReward)
 	{
 		this.discount=discountFactor;
 		mdp=new TTTMDP(winReward, loseReward, livingReward, drawReward);
+		initValues();
 	}
 	
 	/**
 	 
 	
 	/*
-	 * Performs {@link #k} value iteration steps. After running this method, the {@link ValueIterationAgent#valueFunction} map should contain
+	 * Performs {@link #k} value iteration steps, or sweeps until convergence if {@link #epsilon} is set. After running this method, the {@link ValueIterationAgent#valueFunction} array should contain
 	 * the (current) values of each reachable state. You should use the {@link TTTMDP} provided to do this.
 	 * 
 	 *
@@ -104,37 +148,144 @@ public class ValueIterationAgent extends Agent {
 		
 		/* YOUR CODE HERE */
 		
-	    double Sum, Max; // variables to hold q-value and maximum 
+	    TransitionTable model = mdp.compile(states); // the mdp's transitions over our states, in primitive arrays
+	    this.metrics = new SolverMetrics();
 	    
-	    for (int i = 0; i < k; i++) {
-	        for (Game game : this.valueFunction.keySet()) { // loop through all games in the value function
-	            
-	            if (game.isTerminal()) { // skip processing for terminal  states
-	                this.valueFunction.put(game, 0.0); 
-	                continue; //to next state
-	            }
-	            Max = -Integer.MAX_VALUE; // initialize max to a very small value
-	            for (Move move : game.getPossibleMoves()) {
-	                Sum = 0; // Reset sum for each move
-	                for (TransitionProb tp : mdp.generateTransitions(game, move)) {// generate transitions for the given move and calculate the q-value	                    
-	                    Sum += tp.prob * (tp.outcome.localReward + 
-	                                     (discount * this.valueFunction.get(tp.outcome.sPrime)));
-	                }
-	                if (Sum > Max) {
-	                    Max = Sum;
-	                }
+	    ForkJoinPool pool = (parallelism > 0) ? new ForkJoinPool(parallelism) : null;
+	    double[] next = (parallelism > 0) ? new double[valueFunction.length] : null; // second buffer for synchronous sweeps
+	    try {
+	        int sweeps = (epsilon > 0) ? maxSweeps : k;
+	        for (int i = 0; i < sweeps; i++) {
+	            long start = System.nanoTime();
+	            double residual;
+	            if (pool == null)
+	                residual = sweep(model);
+	            else {
+	                residual = sweepSynchronous(pool, model, next);
+	                // swap the buffers: the new values become current
+	                double[] prev = this.valueFunction;
+	                this.valueFunction = next;
+	                next = prev;
 	            }
+	            metrics.record(residual, System.nanoTime() - start, states.size());
 	            
-	            this.valueFunction.put(game, Max);// update the value function
-	            
+	            if (epsilon > 0 && residual < epsilon)
+	                break; // converged
 	        }
-	        
-	        
-	        
+	    } finally {
+	        if (pool != null)
+	            pool.shutdown();
 	    }
 	    
 	}
 
+	/**
+	 * Performs one serial value iteration sweep, updating the values in place.
+	 * 
+	 * @param model
+	 * @return the residual: the largest change to any state's value
+	 */
+	private double sweep(TransitionTable model) {
+	    double residual = 0;
+	    for (int s = 0; s < states.size(); s++) { // loop through all games in the value function
+	        // terminal states are worth 0, otherwise take the maximum q-value over the possible moves
+	        double value = model.maxQValue(s, this.valueFunction, discount);
+	        residual = Math.max(residual, Math.abs(value - this.valueFunction[s]));
+	        this.valueFunction[s] = value; // update the value function
+	    }
+	    return residual;
+	}
+
+	/**
+	 * Performs one synchronous value iteration sweep on {@code pool}, backing up every state from {@link #valueFunction} 
+	 * into {@code dst}.
+	 * 
+	 * @param pool
+	 * @param model
+	 * @param dst
+	 * @return the residual: the largest change to any state's value
+	 */
+	private double sweepSynchronous(ForkJoinPool pool, final TransitionTable model, final double[] dst) {
+	    final double[] src = this.valueFunction;
+	    return ParallelSweep.run(pool, states.size(), new ParallelSweep.Kernel() {
+	        public double run(int from, int to) {
+	            double residual = 0;
+	            for (int s = from; s < to; s++) {
+	                dst[s] = model.maxQValue(s, src, discount);
+	                residual = Math.max(residual, Math.abs(dst[s] - src[s]));
+	            }
+	            return residual;
+	        }
+	    });
+	}
+	
+	/**
+	 * Makes {@link #iterate} sweep until the values converge rather than doing a fixed number of sweeps. Takes effect the 
+	 * next time the agent is trained.
+	 * 
+	 * @param epsilon the residual below which the values are considered converged, or 0 to go back to doing {@link #k} sweeps
+	 */
+	public void setConvergenceThreshold(double epsilon) {
+	    if (epsilon < 0)
+	        throw new IllegalArgumentException("epsilon should not be negative");
+	    this.epsilon = epsilon;
+	}
+	
+	/**
+	 * Saves a snapshot of {@link #valueFunction}, in the format described in {@link TableFile}.
+	 * 
+	 * @param file
+	 * @throws IOException
+	 */
+	public void saveValues(String file) throws IOException {
+	    TableFile.write(file, TableFile.VALUES, states, valueFunction);
+	}
+	
+	/**
+	 * Replaces {@link #valueFunction} with a snapshot saved by {@link #saveValues}, along with its states (which may be 
+	 * symmetric). Training after this carries on sweeping from the loaded values rather than from 0.
+	 * 
+	 * @param file
+	 * @throws IOException if the file can't be read or isn't a valid value snapshot
+	 */
+	public void loadValues(String file) throws IOException {
+	    TableFile table = TableFile.map(file, TableFile.VALUES, 8);
+	    this.states = table.states;
+	    this.symmetric = states.isSymmetric();
+	    this.valueFunction = table.toDoubles();
+	}
+	
+	/**
+	 * Turns symmetry reduction on or off, see {@link #symmetric}. This re-initialises the values, so takes effect the next 
+	 * time the agent is trained.
+	 * 
+	 * @param symmetric
+	 */
+	public void setSymmetryReduction(boolean symmetric) {
+	    this.symmetric = symmetric;
+	    initValues();
+	}
+	
+	/**
+	 * 
+	 * @return the residual, time and number of states updated in each sweep of the last training run
+	 */
+	public SolverMetrics getMetrics() {
+	    return metrics;
+	}
+	
+	/**
+	 * Sets the number of threads used by {@link #iterate}. See {@link #parallelism}. Takes effect the next time the agent 
+	 * is trained.
+	 * 
+	 * @param parallelism 0 for serial in-place sweeps, or the number of threads for synchronous sweeps
+	 */
+	public void setParallelism(int parallelism) {
+	    if (parallelism < 0)
+	        throw new IllegalArgumentException("parallelism should not be negative");
+	    this.parallelism = parallelism;
+	}
+
 	/**
 	 * Extracts a policy based on the value function computed by iterate().
 	 * This method should be run AFTER the train method.
@@ -145,29 +296,17 @@ public class ValueIterationAgent extends Agent {
 		
 		/* YOUR CODE HERE */
 		// almost identical code like iterate function
-		Policy policy = new Policy(); // creste new policy object
-	    Move max_move = null; // variable to hold move with the maximum q-value
-	    double Sum, Max;
-	    for (Game game : this.valueFunction.keySet()) { //iterate through all games in the value function
-	        if (game.isTerminal()) {
-	            this.valueFunction.put(game, 0.0);
+		IndexedPolicy policy = new IndexedPolicy(states); // creste new policy object
+	    TransitionTable model = mdp.compile(states);
+	    for (int s = 0; s < states.size(); s++) { //iterate through all games in the value function
+	        if (states.isTerminal(s)) {
+	            this.valueFunction[s] = 0.0;
 	            continue; // continue.....
 	        }
-	        Max = -Integer.MAX_VALUE;
-	        for (Move move : game.getPossibleMoves()) { //lop through all possible moves for the state
-	            Sum = 0; //reset sum for each mov
-	            for (TransitionProb tp : mdp.generateTransitions(game, move)) {// calculate the q-value for the curent move
-	                Sum += tp.prob * (tp.outcome.localReward + 
-	                                 (discount * this.valueFunction.get(tp.outcome.sPrime)));
-	            }
-	            
-	            
-	            if (Sum > Max) { // update max and maxMove if the current Q-value is greater
-	                Max = Sum;
-	                max_move = move;
-	            }
-	        }// add the optimal move (maxMove) to the policy for the curent state
-	        policy.policy.put(game, max_move);
+	        // the move with the maximum q-value
+	        int best = model.bestMove(s, this.valueFunction, discount);
+	        // add the optimal move to the policy for the curent state
+	        policy.setMove(s, best);
 	        
 	    }
 	    
@@ -213,6 +352,7 @@ public class ValueIterationAgent extends Agent {
 		HumanAgent d=new HumanAgent();
 		
 		Game g=new Game(agent, d, d);
+		g.setListener(new ConsoleGameListener());
 		g.playOut();
 		
 		
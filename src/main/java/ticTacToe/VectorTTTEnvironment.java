@@ -0,0 +1,205 @@
+package ticTacToe;
+
+import java.util.SplittableRandom;
+
+/**
+ * A batch of {@link TTTEnvironment}s stepped in lockstep, for training and evaluating at high throughput. It plays
+ * {@code size()} games at once against an opponent that plays uniformly at random, with the same rewards as
+ * {@link TTTEnvironment}.
+ *
+ * The boards are held as arrays of X and O masks (see {@link BitBoard}) rather than as {@link Game} objects, and
+ * {@link #step} writes its results into arrays supplied by the caller, so stepping allocates nothing. States are
+ * reported as game hashes (see {@link Game#hashCode()}), which {@link StateIndex#ordinalOfHash(int)} turns into
+ * ordinals.
+ *
+ * A game that ends is reset to an empty board straight away, so every game always has a move for X to play.
+ *
+ * An instance must only be used by one thread at a time.
+ *
+ */
+public class VectorTTTEnvironment {
+
+	double winReward = 10.0;
+	double loseReward = -50.0;
+	double livingReward = -1.00;
+	double drawReward = 0.0;
+
+	/**
+	 * X's pieces in every game, i.e. the agent's
+	 */
+	private final int[] xBits;
+
+	/**
+	 * O's pieces in every game, i.e. the opponent's
+	 */
+	private final int[] oBits;
+
+	private final SplittableRandom random;
+
+	/**
+	 * the number of moves played by X over all games since this environment was created
+	 */
+	private long steps = 0;
+
+	/**
+	 * the number of games that have ended since this environment was created
+	 */
+	private long episodes = 0;
+
+	/**
+	 *
+	 * @param size the number of games
+	 */
+	public VectorTTTEnvironment(int size) {
+		this(size, new SplittableRandom());
+	}
+
+	/**
+	 *
+	 * @param size the number of games
+	 * @param seed the seed of the opponent's moves, so that runs can be repeated
+	 */
+	public VectorTTTEnvironment(int size, long seed) {
+		this(size, new SplittableRandom(seed));
+	}
+
+	public VectorTTTEnvironment(int size, long seed, double winReward, double loseReward, double livingReward,
+			double drawReward) {
+		this(size, seed);
+		this.winReward = winReward;
+		this.loseReward = loseReward;
+		this.livingReward = livingReward;
+		this.drawReward = drawReward;
+	}
+
+	private VectorTTTEnvironment(int size, SplittableRandom random) {
+		if (size < 1)
+			throw new IllegalArgumentException("There should be at least one game");
+		this.xBits = new int[size];
+		this.oBits = new int[size];
+		this.random = random;
+	}
+
+	/**
+	 *
+	 * @return the number of games
+	 */
+	public int size() {
+		return xBits.length;
+	}
+
+	/**
+	 * Resets every game to an empty board.
+	 */
+	public void reset() {
+		for (int i = 0; i < xBits.length; i++) {
+			xBits[i] = 0;
+			oBits[i] = 0;
+		}
+	}
+
+	/**
+	 *
+	 * @param i a game
+	 * @return the hash of game {@code i}, where it is always X's turn
+	 */
+	public int getHash(int i) {
+		return Game.hash(xBits[i], oBits[i], 1);
+	}
+
+	/**
+	 * Writes the hash of every game into {@code hashes}.
+	 *
+	 * @param hashes at least {@code size()} long
+	 */
+	public void getHashes(int[] hashes) {
+		for (int i = 0; i < xBits.length; i++)
+			hashes[i] = Game.hash(xBits[i], oBits[i], 1);
+	}
+
+	/**
+	 *
+	 * @param i a game
+	 * @return the cells X can play in game {@code i}, as a mask where cell {@code 3*x+y} is bit {@code 3*x+y}
+	 */
+	public int getLegalMoves(int i) {
+		return BitBoard.empty(xBits[i], oBits[i]);
+	}
+
+	/**
+	 * Plays X's move in every game followed by the opponent's reply, if the game hasn't ended. Games that end are
+	 * reset to an empty board afterwards.
+	 *
+	 * @param cells      the cell X plays in each game, see {@link #getLegalMoves(int)}
+	 * @param rewards    where the reward of each game's move is written
+	 * @param nextHashes where the hash of each game after the move and the opponent's reply is written. For a game
+	 *                   that has ended this is the final position, as in {@link TTTEnvironment#executeMove}, not the
+	 *                   empty board it has been reset to.
+	 * @param done       where it is written whether each game has ended
+	 * @throws IllegalArgumentException if a move isn't legal, in which case no game is changed
+	 */
+	public void step(int[] cells, double[] rewards, int[] nextHashes, boolean[] done) {
+		int n = xBits.length;
+		for (int i = 0; i < n; i++)
+			if (cells[i] < 0 || cells[i] > 8 || (BitBoard.empty(xBits[i], oBits[i]) & (1 << cells[i])) == 0)
+				throw new IllegalArgumentException("Illegal move " + cells[i] + " in game " + i);
+
+		for (int i = 0; i < n; i++) {
+			int x = xBits[i] | (1 << cells[i]);
+			int o = oBits[i];
+			double reward;
+			int turn;
+			boolean ended = true;
+
+			if (BitBoard.hasLine(x)) {
+				reward = winReward;
+				turn = 2;
+			} else if ((x | o) == BitBoard.FULL) {
+				reward = drawReward;
+				turn = 2;
+			} else {
+				// the opponent plays any empty cell
+				int empty = BitBoard.empty(x, o);
+				o |= 1 << BitBoard.nthCell(empty, random.nextInt(Integer.bitCount(empty)));
+				turn = 1;
+				if (BitBoard.hasLine(o))
+					reward = loseReward;
+				else if ((x | o) == BitBoard.FULL)
+					reward = drawReward;
+				else {
+					reward = livingReward;
+					ended = false;
+				}
+			}
+
+			rewards[i] = reward;
+			nextHashes[i] = Game.hash(x, o, turn);
+			done[i] = ended;
+			if (ended) {
+				x = 0;
+				o = 0;
+				episodes++;
+			}
+			xBits[i] = x;
+			oBits[i] = o;
+		}
+		steps += n;
+	}
+
+	/**
+	 *
+	 * @return the number of moves X has played, over all games
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 *
+	 * @return the number of games that have ended
+	 */
+	public long getEpisodes() {
+		return episodes;
+	}
+
+}
@@ -0,0 +1,199 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.GameListener;
+import ticTacToe.IllegalMoveException;
+import ticTacToe.Move;
+import ticTacToe.StateIndex;
+
+public class TestGame {
+
+	@Test
+	public void testHashValues() throws IllegalMoveException {
+		Game g = new Game();
+		assertEquals(1, g.hashCode());
+
+		// X in the top left corner is the most significant digit: 1*3^9, then O's turn: 2
+		g.executeMove('X', 0, 0);
+		assertEquals(19685, g.hashCode());
+
+		// O in the bottom right corner: 2*3^1, then X's turn: 1
+		g.executeMove('O', 2, 2);
+		assertEquals(19683 + 6 + 1, g.hashCode());
+	}
+
+	@Test
+	public void testInverseHash() {
+		for (int hash = 0; hash < 59049; hash++) {
+			Game g = Game.inverseHash(hash);
+			if (hash % 3 == 0)
+				assertNull(g);
+			else
+				assertEquals(hash, g.hashCode());
+		}
+	}
+
+	@Test
+	public void testEvaluateGameState() throws IllegalMoveException {
+		Game g = new Game();
+		g.executeMove('X', 0, 2);
+		g.executeMove('O', 0, 0);
+		g.executeMove('X', 1, 1);
+		g.executeMove('O', 1, 0);
+		assertEquals(Game.ONGOING, g.getState());
+		assertEquals(5, g.getPossibleMoves().size());
+
+		g.executeMove('X', 2, 0);
+		assertEquals(Game.X_WON, g.getState());
+		assertEquals(0, g.getPossibleMoves().size());
+	}
+
+	@Test
+	public void testStateCatalogue() throws IllegalMoveException {
+		StateIndex states = StateIndex.of('X', false);
+		assertSame(states, StateIndex.of('X', false));
+
+		List<Game> games = Game.generateAllValidGames('X');
+		assertEquals(states.size(), games.size());
+		for (int s = 0; s < games.size(); s++) {
+			assertEquals(states.hash(s), games.get(s).hashCode());
+			assertEquals(s, states.ordinalOfHash(games.get(s).hashCode()));
+			assertEquals(states.game(s).getState(), games.get(s).getState());
+		}
+
+		// the returned games are copies, changing them leaves the catalogue as it was
+		Game first = games.get(0);
+		first.executeMove('X', 1, 1);
+		assertEquals(1, states.game(0).hashCode());
+	}
+
+	@Test
+	public void testPlayUndo() {
+		for (Game g : Game.generateAllValidGames('X')) {
+			int hash = g.hashCode();
+			int state = g.getState();
+			List<Game> successors = g.getAllSuccessorGames();
+			int i = 0;
+			for (int moves = g.getLegalMoves(); moves != 0; moves &= moves - 1) {
+				int cell = Integer.numberOfTrailingZeros(moves);
+				g.play(cell);
+				assertEquals(successors.get(i).hashCode(), g.hashCode());
+				assertEquals(successors.get(i).getState(), g.getState());
+				g.undo(cell);
+				assertEquals(hash, g.hashCode());
+				assertEquals(state, g.getState());
+				i++;
+			}
+			if (!g.isTerminal())
+				assertEquals(successors.size(), i);
+		}
+	}
+
+	@Test
+	public void testMoveFlyweights() {
+		for (int cell = 0; cell < 9; cell++) {
+			Move x = Move.of('X', cell);
+			assertSame(x, Move.of('X', cell / 3, cell % 3));
+			assertEquals(new Move('X', cell / 3, cell % 3), x);
+			assertEquals(cell, x.cell());
+			assertEquals('O', Move.of('O', cell).who.getName());
+		}
+
+		Game g = new Game();
+		for (Move m : g.getPossibleMoves())
+			assertSame(Move.of('X', m.cell()), m);
+	}
+
+	@Test
+	public void testListener() throws IllegalMoveException {
+		final StringBuilder events = new StringBuilder();
+		Game g = new Game();
+		g.setListener(new GameListener() {
+			public void movePlayed(Game g, Move m) {
+				events.append(m.cell());
+			}
+
+			public void gameEnded(Game g) {
+				events.append("end");
+			}
+
+			public void illegalMove(Game g, Move m, String reason) {
+				events.append("illegal");
+			}
+		});
+
+		g.executeMove('X', 0, 0);
+		g.play(4);
+		try {
+			g.executeMove('X', 1, 1);
+		} catch (IllegalMoveException e) {
+			// expected, the centre is taken
+		}
+
+		// copies don't tell the listener
+		Game copy = g.clone();
+		copy.play(1);
+		assertSame(GameListener.NONE, copy.getListener());
+
+		g.play(1);
+		g.play(8);
+		g.play(2);
+		assertEquals("04illegal182end", events.toString());
+
+		// the history is kept by play and undo
+		assertEquals(5, g.getHistoryLength());
+		assertEquals(8, g.getHistoryCell(3));
+		g.undo(2);
+		assertEquals(4, g.getHistoryLength());
+		assertEquals(3, copy.getHistoryLength());
+		assertEquals(1, copy.getHistoryCell(2));
+	}
+
+	@Test
+	public void testSimulateMoveHistory() throws IllegalMoveException {
+		final StringBuilder events = new StringBuilder();
+		Game g = new Game();
+		g.play(0);
+		g.setListener(new GameListener() {
+			public void movePlayed(Game g, Move m) {
+				events.append(m.cell());
+			}
+
+			public void gameEnded(Game g) {
+				events.append("end");
+			}
+
+			public void illegalMove(Game g, Move m, String reason) {
+				events.append("illegal");
+			}
+		});
+
+		// the simulated move is in the copy's history, and no one is told about it
+		Game next = g.simulateMove('O', 1, 1);
+		assertEquals(2, next.getHistoryLength());
+		assertEquals(4, next.getHistoryCell(1));
+		assertEquals(1, g.getHistoryLength());
+		assertEquals("", events.toString());
+
+		// only the last move can be undone, not an earlier one by the same player
+		next.play(8);
+		try {
+			next.undo(0);
+			fail("undid a move that wasn't the last one");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		next.undo(8);
+		next.undo(4);
+		assertEquals(1, next.getHistoryLength());
+		assertEquals(0, next.getHistoryCell(0));
+	}
+
+}
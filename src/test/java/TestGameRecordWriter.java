@@ -0,0 +1,86 @@
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import ticTacToe.Agent;
+import ticTacToe.AggressiveAgent;
+import ticTacToe.Game;
+import ticTacToe.GameRecordWriter;
+import ticTacToe.Move;
+import ticTacToe.Policy;
+import ticTacToe.RandomAgent;
+import ticTacToe.Tournament;
+
+public class TestGameRecordWriter {
+
+	@Test
+	public void testTournamentRecords() throws IOException {
+		File file = File.createTempFile("games", ".txt");
+		file.deleteOnExit();
+
+		GameRecordWriter records = new GameRecordWriter(file.getPath(), false);
+		Tournament t = new Tournament(new RandomAgent(), new AggressiveAgent());
+		t.setParallelism(2);
+		t.setListener(records);
+		t.run(5000);
+		records.close();
+
+		assertEquals(10000L, records.getRecorded());
+		assertEquals(0L, records.getDropped());
+
+		// replay every game and check its result
+		int games = 0;
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				Game g = new Game(new Agent(), new Agent());
+				assertEquals('X', line.charAt(0));
+				for (int i = 1; i < line.length() - 1; i++)
+					g.play(line.charAt(i) - '0');
+
+				char result = line.charAt(line.length() - 1);
+				int expected = result == 'X' ? Game.X_WON : result == 'O' ? Game.O_WON : Game.DRAW;
+				assertEquals(line, expected, g.getState());
+				games++;
+			}
+		} finally {
+			in.close();
+		}
+		assertEquals(10000, games);
+	}
+
+	@Test
+	public void testForfeitRecords() throws IOException {
+		File file = File.createTempFile("games", ".txt");
+		file.deleteOnExit();
+
+		// always plays the top left corner, which is illegal from its second move
+		Agent corner = new Agent(new Policy() {
+			public Move getMove(Game g) {
+				return Move.of(g.getWhoseTurn().getName(), 0);
+			}
+		});
+		GameRecordWriter records = new GameRecordWriter(file.getPath(), false);
+		long[] results = Tournament.play(new RandomAgent(), corner, 100, records);
+		records.close();
+		assertEquals(100L, results[4]);
+		assertEquals(100L, records.getRecorded());
+
+		BufferedReader in = new BufferedReader(new FileReader(file));
+		try {
+			for (String line = in.readLine(); line != null; line = in.readLine()) {
+				assertEquals(line, 'F', line.charAt(line.length() - 1));
+				// X made the last move, so O was to move when it forfeited
+				assertEquals(line, 1, (line.length() - 2) % 2);
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ticTacToe.Agent;
+import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
+import ticTacToe.MctsAgent;
+import ticTacToe.MinimaxAgent;
+import ticTacToe.RandomAgent;
+import ticTacToe.Tournament;
+
+public class TestMctsAgent {
+
+	@Test
+	public void testStrength() {
+		MctsAgent mcts = new MctsAgent();
+		mcts.setPlayoutBudget(3000);
+		Tournament asX = new Tournament(new Agent[] { mcts },
+				new Agent[] { new RandomAgent(), new DefensiveAgent(), new MinimaxAgent() });
+		asX.run(30);
+		Tournament asO = new Tournament(new Agent[] { new RandomAgent(), new DefensiveAgent(), new MinimaxAgent() },
+				new Agent[] { mcts });
+		asO.run(30);
+		System.out.print(asX);
+		System.out.print(asO);
+		System.out.println((long) mcts.getPlayoutsPerSecond() + " playouts/s");
+
+		// the search is random, so a rare loss is allowed
+		for (int o = 0; o < 3; o++) {
+			assertEquals(0L, asX.getForfeits(0, o)[0]);
+			assertTrue(asX.getLosses(0, o) <= 1);
+		}
+		for (int x = 0; x < 3; x++) {
+			assertEquals(0L, asO.getForfeits(x, 0)[1]);
+			assertTrue(asO.getWins(x, 0) <= 1);
+		}
+		assertTrue(asX.getWins(0, 0) >= 25);
+		assertTrue(asX.getDraws(0, 2) >= 28);
+		assertTrue(asO.getDraws(2, 0) >= 28);
+	}
+
+	@Test
+	public void testSmallTree() {
+		// too small to keep a subtree and expand it, so it starts a new tree instead
+		MctsAgent mcts = new MctsAgent(12);
+		mcts.setPlayoutBudget(50);
+		long[] results = Tournament.play(mcts, new RandomAgent(), 200);
+		assertEquals(0L, results[3]);
+		results = Tournament.play(new RandomAgent(), mcts, 200);
+		assertEquals(0L, results[4]);
+	}
+
+	@Test
+	public void testTreeReuse() {
+		MctsAgent mcts = new MctsAgent();
+		mcts.setPlayoutBudget(1000);
+		Game g = new Game();
+		g.play(mcts.getMove(g).cell());
+		assertEquals(1000, mcts.getRootVisits());
+
+		// the opponent's reply is a grandchild of the last root, so the playouts through it are kept
+		g.play(Integer.numberOfTrailingZeros(g.getLegalMoves()));
+		mcts.getMove(g);
+		assertTrue(mcts.getRootVisits() > 1000);
+		assertEquals(2000L, mcts.getPlayouts());
+
+		// a new game starts a new tree
+		mcts.getMove(new Game());
+		assertEquals(1000, mcts.getRootVisits());
+	}
+
+	@Test
+	public void testTimeBudget() {
+		MctsAgent mcts = new MctsAgent();
+		mcts.setTimeBudget(50);
+		long start = System.nanoTime();
+		mcts.getMove(new Game());
+		long millis = (System.nanoTime() - start) / 1000000;
+		assertTrue(millis >= 50 && millis < 1000);
+		assertTrue(mcts.getPlayouts() > 0);
+		assertTrue(mcts.getPlayoutsPerSecond() > 0);
+	}
+
+}
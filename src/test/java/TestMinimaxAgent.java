@@ -0,0 +1,85 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ticTacToe.Agent;
+import ticTacToe.AggressiveAgent;
+import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
+import ticTacToe.MinimaxAgent;
+import ticTacToe.Move;
+import ticTacToe.RandomAgent;
+import ticTacToe.Tournament;
+import ticTacToe.ValueIterationAgent;
+
+public class TestMinimaxAgent {
+
+	/**
+	 * Plain minimax without pruning or memoisation, scored like {@link MinimaxAgent}.
+	 */
+	static int minimax(Game g) {
+		if (g.isTerminal()) {
+			int empty = 0;
+			for (int x = 0; x < 3; x++)
+				for (int y = 0; y < 3; y++)
+					if (g.get(x, y) == ' ')
+						empty++;
+			return g.getState() == Game.DRAW ? 0 : -(1 + empty);
+		}
+		int best = -100;
+		for (int moves = g.getLegalMoves(); moves != 0; moves &= moves - 1) {
+			int cell = Integer.numberOfTrailingZeros(moves);
+			g.play(cell);
+			best = Math.max(best, -minimax(g));
+			g.undo(cell);
+		}
+		return best;
+	}
+
+	@Test
+	public void testScores() {
+		MinimaxAgent agent = new MinimaxAgent();
+		System.out.println("Solved in " + agent.getSolveNanos() / 1000000 + "ms, " + agent.getNodes() + " positions");
+		assertTrue(agent.getSolveNanos() < 1000000000L);
+		assertEquals(0, agent.getScore(new Game()));
+
+		for (char xo : new char[] { 'X', 'O' })
+			for (Game g : Game.generateAllValidGames(xo)) {
+				if (g.isTerminal() || Integer.bitCount(g.getLegalMoves()) > 6)
+					continue;
+				int score = agent.getScore(g);
+				assertEquals(g.toString(), minimax(g), score);
+
+				// the move played keeps the score
+				Move m = agent.getMove(g);
+				g.play(m.cell());
+				assertEquals(score, -minimax(g));
+			}
+	}
+
+	@Test
+	public void testNeverLoses() {
+		MinimaxAgent minimax = new MinimaxAgent();
+		Tournament asX = new Tournament(new Agent[] { minimax },
+				new Agent[] { new RandomAgent(), new AggressiveAgent(), new DefensiveAgent(), new MinimaxAgent() });
+		asX.run(1000);
+		Tournament asO = new Tournament(
+				new Agent[] { new RandomAgent(), new AggressiveAgent(), new DefensiveAgent(), new ValueIterationAgent(),
+						new MinimaxAgent() },
+				new Agent[] { minimax });
+		asO.run(1000);
+		System.out.print(asX);
+		System.out.print(asO);
+
+		for (int o = 0; o < 4; o++)
+			assertEquals(0L, asX.getLosses(0, o));
+		for (int x = 0; x < 5; x++)
+			assertEquals(0L, asO.getWins(x, 0));
+
+		// perfect play on both sides is a draw
+		assertEquals(1000L, asX.getDraws(0, 3));
+		assertEquals(1000L, asO.getDraws(4, 0));
+	}
+
+}
@@ -0,0 +1,109 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+
+import ticTacToe.Agent;
+import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
+import ticTacToe.IndexedPolicy;
+import ticTacToe.Policy;
+import ticTacToe.PolicyIterationAgent;
+import ticTacToe.QLearningAgent;
+import ticTacToe.ValueIterationAgent;
+
+public class TestPolicyFile {
+
+	private static String tempFile() throws IOException {
+		File f = File.createTempFile("policy", ".pol");
+		f.deleteOnExit();
+		return f.getPath();
+	}
+
+	private static void assertSameMoves(Policy expected, Policy actual) {
+		for (Game g : Game.generateAllValidGames('X'))
+			assertEquals(expected.getMove(g), actual.getMove(g));
+	}
+
+	@Test
+	public void testValueIteration() throws IOException {
+		ValueIterationAgent vi = new ValueIterationAgent();
+		String file = tempFile();
+		vi.savePolicyToFile(file);
+		assertEquals(20L + ((IndexedPolicy) vi.getPolicy()).getStates().size(), new File(file).length());
+
+		Agent loaded = new Agent();
+		loaded.loadPolicyFromFile(file);
+		assertSameMoves(vi.getPolicy(), loaded.getPolicy());
+
+		// the HashMap based policy loads the same moves
+		assertSameMoves(vi.getPolicy(), new Policy(file));
+
+		int[] results = TestPolicyIterationAgent.playAgainstEachOther(loaded, new DefensiveAgent(), 50);
+		assertEquals(0, results[1]);
+	}
+
+	@Test
+	public void testSaveOverLoadedFile() throws IOException {
+		ValueIterationAgent vi = new ValueIterationAgent();
+		String file = tempFile();
+		vi.savePolicyToFile(file);
+
+		// the loaded policy reads its moves from the file it is saved over
+		Agent loaded = new Agent();
+		loaded.loadPolicyFromFile(file);
+		loaded.savePolicyToFile(file);
+		assertEquals(20L + ((IndexedPolicy) vi.getPolicy()).getStates().size(), new File(file).length());
+		assertSameMoves(vi.getPolicy(), loaded.getPolicy());
+		assertSameMoves(vi.getPolicy(), IndexedPolicy.load(file));
+	}
+
+	@Test
+	public void testSymmetricPolicies() throws IOException {
+		PolicyIterationAgent pi = new PolicyIterationAgent(0.9, 10, -50, -1, 0);
+		pi.setSymmetryReduction(true);
+		pi.train();
+		String file = tempFile();
+		pi.savePolicyToFile(file);
+		assertSameMoves(pi.getPolicy(), IndexedPolicy.load(file));
+
+		QLearningAgent ql = new QLearningAgent();
+		ql.setSymmetryReduction(true);
+		ql.train();
+		ql.savePolicyToFile(file);
+		assertSameMoves(ql.getPolicy(), IndexedPolicy.load(file));
+	}
+
+	@Test
+	public void testCorruptFile() throws IOException {
+		String file = tempFile();
+		new ValueIterationAgent().savePolicyToFile(file);
+
+		RandomAccessFile f = new RandomAccessFile(file, "rw");
+		f.seek(100);
+		int b = f.read();
+		f.seek(100);
+		f.write(b ^ 1);
+		f.close();
+
+		try {
+			IndexedPolicy.load(file);
+			fail("loaded a corrupt policy");
+		} catch (IOException e) {
+			System.out.println(e.getMessage());
+		}
+
+		Agent agent = new Agent() {
+			public String getPolicyFileName() {
+				return "no-such-file.pol";
+			}
+		};
+		assertNull(agent.loadPolicyFromFile());
+	}
+
+}
@@ -109,4 +109,36 @@ public class TestPolicyIterationAgent {
 
 	}
 
+	@Test
+	public void testGaussSeidel() {
+		PolicyIterationAgent agent=new PolicyIterationAgent(0.9, 10, -50, -1, 0);
+		//exact evaluation: one pass per round
+		assertEquals(agent.getRounds(), agent.getMetrics().getSweeps());
+		
+		agent.setEvaluationMode(PolicyIterationAgent.GAUSS_SEIDEL);
+		agent.train();
+		System.out.println("Gauss-Seidel: "+agent.getRounds()+" rounds, "+agent.getMetrics().getSweeps()+" sweeps");
+		assertTrue(agent.getMetrics().getSweeps()>=agent.getRounds());
+		
+		System.out.println("Against Defensive Agent:");
+		int[] results=playAgainstEachOther(agent, new DefensiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+	}
+
+	@Test
+	public void testModifiedPolicyIteration() {
+		PolicyIterationAgent agent=new PolicyIterationAgent(0.9, 10, -50, -1, 0);
+		agent.setEvaluationSweeps(2);
+		agent.train();
+		System.out.println("Modified policy iteration: "+agent.getRounds()+" rounds, "+agent.getMetrics().getSweeps()+" sweeps");
+		assertEquals(0, agent.getChanges());
+		assertEquals(2*agent.getRounds(), agent.getMetrics().getSweeps());
+		
+		System.out.println("Against Aggressive Agent:");
+		int[] results=playAgainstEachOther(agent, new AggressiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+	}
+
 }
@@ -0,0 +1,63 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ticTacToe.AggressiveAgent;
+import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
+import ticTacToe.PrioritizedSweepingAgent;
+import ticTacToe.RandomAgent;
+import ticTacToe.ValueIterationAgent;
+
+public class TestPrioritizedSweepingAgent {
+	@Test
+	public void testDefensive() {
+		System.out.println("Against Defensive Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(new PrioritizedSweepingAgent(), new DefensiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+		
+
+	}
+	
+	@Test
+	public void testAggressive() {
+		System.out.println("Against Aggressive Agent:");
+		
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(new PrioritizedSweepingAgent(), new AggressiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+		
+
+	}
+
+	
+	@Test
+	public void testRandom() {
+		System.out.println("Against Random Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(new PrioritizedSweepingAgent(), new RandomAgent(), 50);
+		
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+		
+
+	}
+	
+	@Test
+	public void testSameValuesAsValueIteration() {
+		ValueIterationAgent vi=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		vi.setConvergenceThreshold(1e-12);
+		vi.train();
+		
+		PrioritizedSweepingAgent ps=new PrioritizedSweepingAgent(0.9, 10, -50, -1, 0);
+		for(Game g: Game.generateAllValidGames('X'))
+			assertEquals(vi.getValue(g), ps.getValue(g), 1e-6);
+		
+		long sweepBackups=vi.getMetrics().getTotalStatesUpdated();
+		long backups=ps.getMetrics().getTotalStatesUpdated();
+		System.out.println("Backups: "+backups+" vs "+sweepBackups+" for full sweeps");
+		assertTrue(backups<sweepBackups);
+	}
+
+}
@@ -1,11 +1,19 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
 
 import org.junit.Test;
 
 import ticTacToe.AggressiveAgent;
 import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
+import ticTacToe.Move;
 import ticTacToe.QLearningAgent;
 import ticTacToe.RandomAgent;
+import ticTacToe.ReplayBuffer;
 
 
 public class TestQLearning {
@@ -42,4 +50,95 @@ public class TestQLearning {
 
 	}
 
+	@Test
+	public void testSymmetryReduction() {
+		QLearningAgent agent=new QLearningAgent();
+		agent.setSymmetryReduction(true);
+		agent.train();
+		
+		System.out.println("Symmetry reduced agent against Defensive Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(agent, new DefensiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+	}
+
+	@Test
+	public void testResumeFromSnapshot() throws IOException {
+		File file=File.createTempFile("qtable", ".q");
+		file.deleteOnExit();
+		
+		QLearningAgent first=new QLearningAgent(new RandomAgent(), 0.5, 20000, 0.9);
+		first.saveQTable(file.getPath());
+		
+		QLearningAgent resumed=new QLearningAgent(new RandomAgent(), 0.5, 0, 0.9);
+		resumed.loadQTable(file.getPath());
+		for(Game g: Game.generateAllValidGames('X'))
+			for(Move m: g.getPossibleMoves())
+				assertEquals(first.getQTable().getQValue(g, m), resumed.getQTable().getQValue(g, m));
+		
+		//top up the loaded q-table rather than starting again
+		resumed.train(30000);
+		System.out.println("Resumed agent against Defensive Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(resumed, new DefensiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+	}
+
+	@Test
+	public void testActors() {
+		QLearningAgent agent=new QLearningAgent(new RandomAgent(), 0.5, 0, 0.9);
+		agent.setActors(4);
+		agent.train(50000);
+		System.out.println("4 actors: "+(int) agent.getEpisodesPerSecond()+" episodes/s");
+		
+		System.out.println("Against Defensive Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(agent, new DefensiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+	}
+
+	@Test
+	public void testReplay() {
+		for(boolean prioritized: new boolean[] {false, true})
+		{
+			//each move replaying 4 of the last 1000
+			QLearningAgent agent=new QLearningAgent(new RandomAgent(), 0.5, 0, 0.9);
+			agent.setReplay(1000, 4, prioritized);
+			agent.train(50000);
+			
+			System.out.println((prioritized ? "Prioritized" : "Uniform")+" replay agent against Defensive Agent:");
+			int[] results=TestPolicyIterationAgent.playAgainstEachOther(agent, new DefensiveAgent(), 50);
+			System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+			assertEquals(0, results[1]);
+		}
+	}
+
+	@Test
+	public void testReplayBuffer() {
+		ReplayBuffer buffer=new ReplayBuffer(3, true);
+		for(int i=0;i<5;i++)
+			buffer.add(i, i, 0.0, i+1, false);
+		
+		//the two oldest transitions have been overwritten
+		assertEquals(3, buffer.size());
+		assertEquals(3, buffer.getState(0));
+		assertEquals(4, buffer.getState(1));
+		assertEquals(2, buffer.getState(2));
+		
+		//sampling follows the priorities
+		buffer.setError(0, 0.0);
+		buffer.setError(1, 0.0);
+		buffer.setError(2, 100.0);
+		Random r=new Random(0);
+		int[] counts=new int[3];
+		for(int i=0;i<10000;i++)
+			counts[buffer.sample(r)]++;
+		assertTrue(counts[2]>9900);
+		assertTrue(counts[0]>0 && counts[1]>0);
+		
+		//and the weights make up for it
+		assertEquals(1.0, buffer.getWeight(0), 1e-12);
+		assertEquals(buffer.getPriority(0)/buffer.getPriority(2), buffer.getWeight(2), 1e-12);
+	}
+
 }
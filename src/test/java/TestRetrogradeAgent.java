@@ -0,0 +1,60 @@
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import ticTacToe.AggressiveAgent;
+import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
+import ticTacToe.RetrogradeAgent;
+import ticTacToe.RandomAgent;
+import ticTacToe.ValueIterationAgent;
+
+public class TestRetrogradeAgent {
+	@Test
+	public void testDefensive() {
+		System.out.println("Against Defensive Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(new RetrogradeAgent(), new DefensiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+		
+
+	}
+	
+	@Test
+	public void testAggressive() {
+		System.out.println("Against Aggressive Agent:");
+		
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(new RetrogradeAgent(), new AggressiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+		
+
+	}
+
+	
+	@Test
+	public void testRandom() {
+		System.out.println("Against Random Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(new RetrogradeAgent(), new RandomAgent(), 50);
+		
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+		
+
+	}
+	
+	@Test
+	public void testSameValuesAsValueIteration() {
+		ValueIterationAgent vi=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		vi.setConvergenceThreshold(1e-12);
+		vi.train();
+		
+		RetrogradeAgent rg=new RetrogradeAgent(0.9, 10, -50, -1, 0);
+		for(Game g: Game.generateAllValidGames('X'))
+			assertEquals(vi.getValue(g), rg.getValue(g), 1e-9);
+		
+		//one backup per state
+		assertEquals(Game.generateAllValidGames('X').size(), (int) rg.getMetrics().getTotalStatesUpdated());
+	}
+
+}
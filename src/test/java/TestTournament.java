@@ -0,0 +1,86 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import ticTacToe.AggressiveAgent;
+import ticTacToe.Agent;
+import ticTacToe.Game;
+import ticTacToe.Move;
+import ticTacToe.Policy;
+import ticTacToe.RandomAgent;
+import ticTacToe.Tournament;
+import ticTacToe.ValueIterationAgent;
+
+public class TestTournament {
+
+	@Test
+	public void testRoundRobin() {
+		Tournament t = new Tournament(new RandomAgent(), new AggressiveAgent(), new RandomAgent());
+		t.setParallelism(2);
+		t.run(1000);
+		System.out.print(t);
+
+		assertEquals(6000L, t.getGames());
+		for (int x = 0; x < 3; x++)
+			for (int o = 0; o < 3; o++) {
+				if (x == o) {
+					assertEquals(0L, t.getGames(x, o));
+					continue;
+				}
+				assertEquals(1000L, t.getGames(x, o));
+				assertEquals(0L, t.getForfeits(x, o)[0] + t.getForfeits(x, o)[1]);
+
+				double[] win = t.getWinInterval(x, o);
+				double rate = t.getWins(x, o) / 1000.0;
+				assertTrue(win[0] <= rate && rate <= win[1]);
+			}
+		assertTrue(t.getGamesPerSecond() > 0);
+	}
+
+	@Test
+	public void testPlanningAgent() {
+		// the value iteration agent only plays X
+		Tournament t = new Tournament(new Agent[] { new ValueIterationAgent() },
+				new Agent[] { new RandomAgent(), new AggressiveAgent() });
+		t.run(2000);
+		System.out.print(t);
+
+		assertEquals(4000L, t.getGames());
+		for (int o = 0; o < 2; o++) {
+			assertEquals(0L, t.getLosses(0, o));
+			assertEquals(0L, t.getForfeits(0, o)[0]);
+			// with no losses in 2000 games, the loss rate is below 0.2% at 95% confidence
+			assertTrue(t.getLossInterval(0, o)[1] < 0.002);
+		}
+	}
+
+	@Test
+	public void testWilsonInterval() {
+		// 0 of 100: the upper bound is z^2/(n+z^2)
+		double[] none = Tournament.wilson(0, 100, Tournament.Z95);
+		assertEquals(0.0, none[0], 1e-12);
+		assertEquals(0.0370, none[1], 1e-4);
+
+		double[] half = Tournament.wilson(50, 100, Tournament.Z95);
+		assertEquals(0.4038, half[0], 1e-4);
+		assertEquals(0.5962, half[1], 1e-4);
+	}
+
+	@Test
+	public void testForfeit() {
+		// a policy that always plays the top left corner, which is illegal from its second move
+		Agent corner = new Agent(new Policy() {
+			public Move getMove(Game g) {
+				return Move.of(g.getWhoseTurn().getName(), 0);
+			}
+		});
+		long[] results = Tournament.play(new RandomAgent(), corner, 100);
+		assertEquals(100L, results[0] + results[1] + results[2]);
+		assertEquals(0L, results[3]);
+		// O always forfeits by its second move, before X can have won
+		assertEquals(100L, results[0]);
+		assertEquals(100L, results[4]);
+	}
+
+}
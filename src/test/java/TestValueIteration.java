@@ -1,10 +1,16 @@
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
 
 import org.junit.Test;
 
 import ticTacToe.AggressiveAgent;
 import ticTacToe.DefensiveAgent;
+import ticTacToe.Game;
 import ticTacToe.RandomAgent;
+import ticTacToe.SolverMetrics;
 import ticTacToe.ValueIterationAgent;
 
 public class TestValueIteration {
@@ -41,4 +47,86 @@ public class TestValueIteration {
 
 	}
 
+	@Test
+	public void testParallel() {
+		ValueIterationAgent serial=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		serial.setParallelism(1);
+		serial.train();
+		
+		ValueIterationAgent parallel=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		parallel.setParallelism(4);
+		parallel.train();
+		
+		//synchronous sweeps give the same values whatever the number of threads
+		for(Game g: Game.generateAllValidGames('X'))
+			assertEquals(serial.getValue(g), parallel.getValue(g), 0.0);
+		
+		System.out.println("Parallel agent against Random Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(parallel, new RandomAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+	}
+
+	@Test
+	public void testConvergence() {
+		ValueIterationAgent agent=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		agent.setConvergenceThreshold(1e-9);
+		agent.train();
+		
+		SolverMetrics metrics=agent.getMetrics();
+		System.out.print(metrics);
+		assertTrue(metrics.getLastResidual()<1e-9);
+		assertTrue(metrics.getSweeps()<1000);
+		
+		System.out.println("Converged agent against Defensive Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(agent, new DefensiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+	}
+
+	@Test
+	public void testSymmetryReduction() {
+		ValueIterationAgent full=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		full.setConvergenceThreshold(1e-9);
+		full.train();
+		
+		ValueIterationAgent reduced=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		reduced.setSymmetryReduction(true);
+		reduced.setConvergenceThreshold(1e-9);
+		reduced.train();
+		
+		System.out.println("States: "+full.getMetrics().getStatesUpdated(0)+" full, "+reduced.getMetrics().getStatesUpdated(0)+" up to symmetry");
+		assertTrue(8*reduced.getMetrics().getStatesUpdated(0)<2*full.getMetrics().getStatesUpdated(0));
+		
+		//symmetric games have the same value, so looking them up through their representative changes nothing
+		for(Game g: Game.generateAllValidGames('X'))
+			assertEquals(full.getValue(g), reduced.getValue(g), 1e-6);
+		
+		System.out.println("Symmetry reduced agent against Defensive Agent:");
+		int[] results=TestPolicyIterationAgent.playAgainstEachOther(reduced, new DefensiveAgent(), 50);
+		System.out.println("Wins: " + results[0] + " Losses: " + results[1] + " Draws: " + results[2]);
+		assertEquals(0, results[1]);
+	}
+
+	@Test
+	public void testValueSnapshot() throws IOException {
+		File file=File.createTempFile("values", ".v");
+		file.deleteOnExit();
+		
+		ValueIterationAgent agent=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		agent.setConvergenceThreshold(1e-9);
+		agent.train();
+		agent.saveValues(file.getPath());
+		
+		ValueIterationAgent resumed=new ValueIterationAgent(0.9, 10, -50, -1, 0);
+		resumed.loadValues(file.getPath());
+		for(Game g: Game.generateAllValidGames('X'))
+			assertEquals(agent.getValue(g), resumed.getValue(g), 0.0);
+		
+		//the loaded values have already converged, so one sweep is enough
+		resumed.setConvergenceThreshold(1e-9);
+		resumed.train();
+		assertEquals(1, resumed.getMetrics().getSweeps());
+	}
+
 }
@@ -0,0 +1,85 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import ticTacToe.Game;
+import ticTacToe.StateIndex;
+import ticTacToe.VectorTTTEnvironment;
+
+public class TestVectorEnvironment {
+
+	@Test
+	public void testRandomPlay() {
+		VectorTTTEnvironment env = new VectorTTTEnvironment(64, 1);
+		StateIndex states = StateIndex.of('X', false);
+		Random r = new Random(0);
+		int[] cells = new int[env.size()];
+		double[] rewards = new double[env.size()];
+		int[] next = new int[env.size()];
+		boolean[] done = new boolean[env.size()];
+
+		for (int step = 0; step < 1000; step++) {
+			for (int i = 0; i < env.size(); i++) {
+				int moves = env.getLegalMoves(i);
+				int cell;
+				do
+					cell = r.nextInt(9);
+				while ((moves & (1 << cell)) == 0);
+				cells[i] = cell;
+			}
+			env.step(cells, rewards, next, done);
+
+			for (int i = 0; i < env.size(); i++) {
+				Game g = Game.inverseHash(next[i]);
+				g.evaluateGameState();
+				assertTrue(states.ordinalOfHash(next[i]) >= 0);
+				assertEquals(g.isTerminal(), done[i]);
+				switch (g.getState()) {
+				case Game.X_WON:
+					assertEquals(10.0, rewards[i], 0);
+					break;
+				case Game.O_WON:
+					assertEquals(-50.0, rewards[i], 0);
+					break;
+				case Game.DRAW:
+					assertEquals(0.0, rewards[i], 0);
+					break;
+				default:
+					assertEquals(-1.0, rewards[i], 0);
+					assertEquals(next[i], env.getHash(i));
+				}
+
+				// finished games start again from an empty board
+				if (done[i])
+					assertEquals(new Game().hashCode(), env.getHash(i));
+			}
+		}
+		assertEquals(64000L, env.getSteps());
+		assertTrue(env.getEpisodes() > 0);
+	}
+
+	@Test
+	public void testIllegalMove() {
+		VectorTTTEnvironment env = new VectorTTTEnvironment(2, 1);
+		int[] cells = { 4, 4 };
+		double[] rewards = new double[2];
+		int[] next = new int[2];
+		boolean[] done = new boolean[2];
+		env.step(cells, rewards, next, done);
+
+		int[] before = { env.getHash(0), env.getHash(1) };
+		cells[0] = Integer.numberOfTrailingZeros(env.getLegalMoves(0));
+		try {
+			env.step(cells, rewards, next, done); // cell 4 is taken in game 1
+			throw new AssertionError("Expected an IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// neither game has changed
+			assertEquals(before[0], env.getHash(0));
+			assertEquals(before[1], env.getHash(1));
+		}
+	}
+
+}